@@ -0,0 +1,78 @@
+package com.github.j4m350n;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of fanning in over many tasks with {@link Task#all(List)}, compared
+ * with {@link CompletableFuture#allOf(CompletableFuture[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskAllBenchmark {
+
+	@Param({"10", "1000", "100000"})
+	public int size;
+
+	private List<Task<Integer>> completedTasks;
+	private CompletableFuture<?>[] completedFutures;
+
+	@Setup
+	public void setup() {
+		this.completedTasks = new ArrayList<>(this.size);
+		this.completedFutures = new CompletableFuture<?>[this.size];
+		for (int i = 0; i < this.size; i++) {
+			this.completedTasks.add(Task.complete(i));
+			this.completedFutures[i] = CompletableFuture.completedFuture(i);
+		}
+	}
+
+	@Benchmark
+	public List<Integer> allCompleted() {
+		return Task.all(this.completedTasks).await();
+	}
+
+	@Benchmark
+	public List<Integer> allPending() {
+		List<Task<Integer>> tasks = new ArrayList<>(this.size);
+		for (int i = 0; i < this.size; i++) {
+			final int value = i;
+			tasks.add(new Task<>(() -> value));
+		}
+		return Task.all(tasks).await();
+	}
+
+	@Benchmark
+	public Object allOfCompleted() {
+		return CompletableFuture.allOf(this.completedFutures).join();
+	}
+
+	@Benchmark
+	public Object allOfPending() {
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[this.size];
+		for (int i = 0; i < this.size; i++) {
+			final int value = i;
+			futures[i] = CompletableFuture.supplyAsync(() -> value, TaskScheduler.getDefaultExecutor());
+		}
+		return CompletableFuture.allOf(futures).join();
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.github.j4m350n;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of creating an already completed task versus running an
+ * action, compared with {@link CompletableFuture}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskCreationBenchmark {
+
+	@Benchmark
+	public Integer complete() {
+		return Task.complete(1).await();
+	}
+
+	@Benchmark
+	public Integer action() {
+		return new Task<>(() -> 1).await();
+	}
+
+	@Benchmark
+	public Integer completedFuture() {
+		return CompletableFuture.completedFuture(1).join();
+	}
+
+	@Benchmark
+	public Integer supplyAsync() {
+		return CompletableFuture.supplyAsync(() -> 1, TaskScheduler.getDefaultExecutor()).join();
+	}
+
+}
@@ -0,0 +1,70 @@
+package com.github.j4m350n;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of creating tasks and of failing them for every
+ * {@link TaskStackTraces.Mode}, which decides how much of the creating stack
+ * is recorded and stitched into the exception.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskFailureBenchmark {
+
+	@Param({"OFF", "FULL", "SAMPLED", "WALKER"})
+	public TaskStackTraces.Mode mode;
+
+	private final TaskAction<Integer> failingAction = () -> {
+		throw new Exception("failure");
+	};
+
+	private TaskStackTraces.Mode previousMode;
+
+	@Setup
+	public void setup() {
+		this.previousMode = TaskStackTraces.getMode();
+		TaskStackTraces.setMode(this.mode);
+	}
+
+	@TearDown
+	public void tearDown() {
+		TaskStackTraces.setMode(this.previousMode);
+	}
+
+	@Benchmark
+	public Integer success() {
+		return new Task<>(() -> 1).await();
+	}
+
+	@Benchmark
+	public TaskResult<Integer> failure() {
+		return new Task<>(this.failingAction).waitForResult();
+	}
+
+	@Benchmark
+	public TaskResult<Integer> failureAfterMap() {
+		return new Task<>(() -> 1)
+			.<Integer>map(value -> {
+				throw new Exception("failure");
+			})
+			.waitForResult();
+	}
+
+}
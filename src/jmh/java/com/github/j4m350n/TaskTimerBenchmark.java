@@ -0,0 +1,60 @@
+package com.github.j4m350n;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of scheduling and cancelling a timeout, the common case for
+ * {@link Task#timeout(Duration)} on a task that completes in time,
+ * compared with a {@link ScheduledThreadPoolExecutor}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskTimerBenchmark {
+
+	private static final long DELAY = Duration.ofSeconds(30).toNanos();
+
+	private final ScheduledThreadPoolExecutor executor = createExecutor();
+
+	@TearDown
+	public void tearDown() {
+		this.executor.shutdownNow();
+	}
+
+	@Benchmark
+	public void timerScheduleCancel() {
+		TaskTimer.schedule(() -> {
+		}, DELAY).cancel();
+	}
+
+	@Benchmark
+	public void scheduledExecutorScheduleCancel() {
+		ScheduledFuture<?> future = this.executor.schedule(() -> {
+		}, DELAY, TimeUnit.NANOSECONDS);
+		future.cancel(false);
+	}
+
+	private static ScheduledThreadPoolExecutor createExecutor() {
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+		executor.setRemoveOnCancelPolicy(true);
+		return executor;
+	}
+
+}
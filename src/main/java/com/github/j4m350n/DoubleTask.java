@@ -0,0 +1,257 @@
+package com.github.j4m350n;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>
+ * A {@link Task} specialized for <code>double</code> values. The value is
+ * kept in a primitive field, so chains of
+ * {@link #mapDouble(DoubleTaskActionMap)} and {@link #orDouble(DoubleTaskActionOr)}
+ * stages never box the value nor allocate a {@link TaskResult}.
+ * </p>
+ * <p>
+ * A <code>DoubleTask</code> is a regular <code>Task&lt;Double&gt;</code>, so
+ * it can be cancelled, given a timeout, passed to {@link Task#all(java.util.List)}
+ * or mapped into another type with {@link #map(TaskActionMap)}, which boxes
+ * the value once.
+ * </p>
+ *
+ * <pre>{@code
+ *   double result = new DoubleTask(() -> measureLatencySomehow())
+ *     .mapDouble(millis -> millis / 1000.0)
+ *     .orDouble(exception -> Double.NaN)
+ *     .awaitDouble();
+ * }</pre>
+ */
+public class DoubleTask extends Task<Double> {
+
+	/**
+	 * @param value The value returned by the task.
+	 * @return A task that is already complete with the value.
+	 */
+	public static DoubleTask complete(double value) {
+		return new DoubleTask(value, TaskScheduler.getDefaultExecutor());
+	}
+
+	/**
+	 * @param exception The exception to throw.
+	 * @return A task that already failed with the exception.
+	 */
+	public static DoubleTask failDouble(Exception exception) {
+		return DoubleTask.failedDouble(exception, TaskScheduler.getDefaultExecutor());
+	}
+
+	private double _value;
+
+	private DoubleTask(Executor executor) {
+		super((TaskResult<Double>) null, executor);
+	}
+
+	private DoubleTask(double value, Executor executor) {
+		this(executor);
+		this.settleDouble(value);
+	}
+
+	public DoubleTask(DoubleTaskAction action) {
+		this(action, TaskScheduler.getDefaultExecutor());
+	}
+
+	/**
+	 * @param action   The action to run.
+	 * @param executor The executor to run the action on.
+	 */
+	public DoubleTask(DoubleTaskAction action, Executor executor) {
+		this(executor);
+		final TaskStackTraces.CallerStack _mainStack = TaskStackTraces.capture();
+		this.execute(() -> this.runDouble(action, _mainStack));
+	}
+
+	private boolean settleDouble(double value) {
+		if (!this.claim()) return false;
+		this._value = value;
+		this.release();
+		return true;
+	}
+
+	/**
+	 * Keep successful values in the primitive field, even when they are
+	 * passed in boxed by the generic {@link Task} code.
+	 */
+	@Override
+	boolean settleValue(Double value) {
+		return this.settleDouble(value);
+	}
+
+	@Override
+	Double valueNow() {
+		return this._value;
+	}
+
+	private void runDouble(DoubleTaskAction action, TaskStackTraces.CallerStack mainStack) {
+		this.track(() -> {
+			final double value;
+			try {
+				value = action.run();
+			} catch (Exception exception) {
+				TaskStackTraces.stitch(exception, mainStack);
+				this.settleException(exception);
+				return;
+			}
+			this.settleDouble(value);
+		});
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link #await()}, but returns the value without boxing it.
+	 * </p>
+	 *
+	 * @return The completed value.
+	 */
+	public double awaitDouble() {
+		this.waitUntilDone();
+		final Exception exception = this.exceptionNow();
+		if (exception != null) {
+			throw new RuntimeException(exception);
+		}
+		return this._value;
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link #map(TaskActionMap)}, but maps the value into another
+	 * <code>double</code> without boxing it.
+	 * </p>
+	 *
+	 * @param action The <i>map()</i> action.
+	 * @return The new task.
+	 */
+	public DoubleTask mapDouble(DoubleTaskActionMap action) {
+		if (this.isDone()) {
+			final Exception exception = this.exceptionNow();
+			if (exception != null) return DoubleTask.failedDouble(exception, this._executor);
+		}
+		return this.mapDouble(action, this._executor);
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link #mapNow(TaskActionMap)}, but maps the value into
+	 * another <code>double</code> without boxing it.
+	 * </p>
+	 *
+	 * @param action The <i>map()</i> action.
+	 * @return The new task.
+	 */
+	public DoubleTask mapDoubleNow(DoubleTaskActionMap action) {
+		if (!this.isDone()) return this.mapDouble(action, this._executor);
+		final Exception exception = this.exceptionNow();
+		if (exception != null) return DoubleTask.failedDouble(exception, this._executor);
+		try {
+			return new DoubleTask(action.run(this._value), this._executor);
+		} catch (Exception failure) {
+			return DoubleTask.failedDouble(failure, this._executor);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link #mapDouble(DoubleTaskActionMap)}, but always runs the action
+	 * on the provided executor, even when this task is already complete.
+	 * </p>
+	 *
+	 * @param action   The <i>map()</i> action.
+	 * @param executor The executor to run the action on.
+	 * @return The new task.
+	 */
+	public DoubleTask mapDouble(DoubleTaskActionMap action, Executor executor) {
+		final DoubleTask next = new DoubleTask(executor);
+		final TaskStackTraces.CallerStack _mainStack = TaskStackTraces.capture();
+		this.linkCancellation(next);
+		next.inheritDeadline(this);
+		this.onComplete(() -> {
+			final Exception exception = this.exceptionNow();
+			if (exception != null) {
+				next.settleException(exception);
+				return;
+			}
+			final double value = this._value;
+			next.executeNext(() -> next.runDouble(() -> action.run(value), _mainStack));
+		});
+		return next;
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link #or(TaskActionOr)}, but recovers with a
+	 * <code>double</code> without boxing it.
+	 * </p>
+	 *
+	 * @param action The <i>or()</i> action.
+	 * @return The new task.
+	 */
+	public DoubleTask orDouble(DoubleTaskActionOr action) {
+		if (this.isDone()) {
+			final Exception exception = this.exceptionNow();
+			if (exception == null || exception instanceof CancellationException) return this;
+		}
+		return this.orDouble(action, this._executor);
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link #orNow(TaskActionOr)}, but recovers with a
+	 * <code>double</code> without boxing it.
+	 * </p>
+	 *
+	 * @param action The <i>or()</i> action.
+	 * @return The new task.
+	 */
+	public DoubleTask orDoubleNow(DoubleTaskActionOr action) {
+		if (!this.isDone()) return this.orDouble(action, this._executor);
+		final Exception exception = this.exceptionNow();
+		if (exception == null || exception instanceof CancellationException) return this;
+		try {
+			return new DoubleTask(action.run(exception), this._executor);
+		} catch (Exception failure) {
+			return DoubleTask.failedDouble(failure, this._executor);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link #orDouble(DoubleTaskActionOr)}, but always runs the action
+	 * on the provided executor, even when this task is already complete.
+	 * </p>
+	 *
+	 * @param action   The <i>or()</i> action.
+	 * @param executor The executor to run the action on.
+	 * @return The new task.
+	 */
+	public DoubleTask orDouble(DoubleTaskActionOr action, Executor executor) {
+		final DoubleTask next = new DoubleTask(executor);
+		final TaskStackTraces.CallerStack _mainStack = TaskStackTraces.capture();
+		this.linkCancellation(next);
+		this.onComplete(() -> {
+			final Exception exception = this.exceptionNow();
+			if (exception == null) {
+				next.settleDouble(this._value);
+				return;
+			}
+			if (exception instanceof CancellationException) {
+				next.settleException(exception);
+				return;
+			}
+			next.executeNext(() -> next.runDouble(() -> action.run(exception), _mainStack));
+		});
+		return next;
+	}
+
+	private static DoubleTask failedDouble(Exception exception, Executor executor) {
+		final DoubleTask task = new DoubleTask(executor);
+		task.settleException(exception);
+		return task;
+	}
+
+}
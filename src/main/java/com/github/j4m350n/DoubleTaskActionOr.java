@@ -0,0 +1,5 @@
+package com.github.j4m350n;
+
+public interface DoubleTaskActionOr {
+	double run(Exception exception) throws Exception;
+}
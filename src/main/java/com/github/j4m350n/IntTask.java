@@ -0,0 +1,257 @@
+package com.github.j4m350n;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>
+ * A {@link Task} specialized for <code>int</code> values. The value is kept
+ * in a primitive field, so chains of {@link #mapInt(IntTaskActionMap)} and
+ * {@link #orInt(IntTaskActionOr)} stages never box the value nor allocate
+ * a {@link TaskResult}.
+ * </p>
+ * <p>
+ * An <code>IntTask</code> is a regular <code>Task&lt;Integer&gt;</code>, so
+ * it can be cancelled, given a timeout, passed to {@link Task#all(java.util.List)}
+ * or mapped into another type with {@link #map(TaskActionMap)}, which boxes
+ * the value once.
+ * </p>
+ *
+ * <pre>{@code
+ *   int result = new IntTask(() -> countUsersSomehow())
+ *     .mapInt(count -> count * 2)
+ *     .orInt(exception -> -1)
+ *     .awaitInt();
+ * }</pre>
+ */
+public class IntTask extends Task<Integer> {
+
+	/**
+	 * @param value The value returned by the task.
+	 * @return A task that is already complete with the value.
+	 */
+	public static IntTask complete(int value) {
+		return new IntTask(value, TaskScheduler.getDefaultExecutor());
+	}
+
+	/**
+	 * @param exception The exception to throw.
+	 * @return A task that already failed with the exception.
+	 */
+	public static IntTask failInt(Exception exception) {
+		return IntTask.failedInt(exception, TaskScheduler.getDefaultExecutor());
+	}
+
+	private int _value;
+
+	private IntTask(Executor executor) {
+		super((TaskResult<Integer>) null, executor);
+	}
+
+	private IntTask(int value, Executor executor) {
+		this(executor);
+		this.settleInt(value);
+	}
+
+	public IntTask(IntTaskAction action) {
+		this(action, TaskScheduler.getDefaultExecutor());
+	}
+
+	/**
+	 * @param action   The action to run.
+	 * @param executor The executor to run the action on.
+	 */
+	public IntTask(IntTaskAction action, Executor executor) {
+		this(executor);
+		final TaskStackTraces.CallerStack _mainStack = TaskStackTraces.capture();
+		this.execute(() -> this.runInt(action, _mainStack));
+	}
+
+	private boolean settleInt(int value) {
+		if (!this.claim()) return false;
+		this._value = value;
+		this.release();
+		return true;
+	}
+
+	/**
+	 * Keep successful values in the primitive field, even when they are
+	 * passed in boxed by the generic {@link Task} code.
+	 */
+	@Override
+	boolean settleValue(Integer value) {
+		return this.settleInt(value);
+	}
+
+	@Override
+	Integer valueNow() {
+		return this._value;
+	}
+
+	private void runInt(IntTaskAction action, TaskStackTraces.CallerStack mainStack) {
+		this.track(() -> {
+			final int value;
+			try {
+				value = action.run();
+			} catch (Exception exception) {
+				TaskStackTraces.stitch(exception, mainStack);
+				this.settleException(exception);
+				return;
+			}
+			this.settleInt(value);
+		});
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link #await()}, but returns the value without boxing it.
+	 * </p>
+	 *
+	 * @return The completed value.
+	 */
+	public int awaitInt() {
+		this.waitUntilDone();
+		final Exception exception = this.exceptionNow();
+		if (exception != null) {
+			throw new RuntimeException(exception);
+		}
+		return this._value;
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link #map(TaskActionMap)}, but maps the value into another
+	 * <code>int</code> without boxing it.
+	 * </p>
+	 *
+	 * @param action The <i>map()</i> action.
+	 * @return The new task.
+	 */
+	public IntTask mapInt(IntTaskActionMap action) {
+		if (this.isDone()) {
+			final Exception exception = this.exceptionNow();
+			if (exception != null) return IntTask.failedInt(exception, this._executor);
+		}
+		return this.mapInt(action, this._executor);
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link #mapNow(TaskActionMap)}, but maps the value into
+	 * another <code>int</code> without boxing it.
+	 * </p>
+	 *
+	 * @param action The <i>map()</i> action.
+	 * @return The new task.
+	 */
+	public IntTask mapIntNow(IntTaskActionMap action) {
+		if (!this.isDone()) return this.mapInt(action, this._executor);
+		final Exception exception = this.exceptionNow();
+		if (exception != null) return IntTask.failedInt(exception, this._executor);
+		try {
+			return new IntTask(action.run(this._value), this._executor);
+		} catch (Exception failure) {
+			return IntTask.failedInt(failure, this._executor);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link #mapInt(IntTaskActionMap)}, but always runs the action
+	 * on the provided executor, even when this task is already complete.
+	 * </p>
+	 *
+	 * @param action   The <i>map()</i> action.
+	 * @param executor The executor to run the action on.
+	 * @return The new task.
+	 */
+	public IntTask mapInt(IntTaskActionMap action, Executor executor) {
+		final IntTask next = new IntTask(executor);
+		final TaskStackTraces.CallerStack _mainStack = TaskStackTraces.capture();
+		this.linkCancellation(next);
+		next.inheritDeadline(this);
+		this.onComplete(() -> {
+			final Exception exception = this.exceptionNow();
+			if (exception != null) {
+				next.settleException(exception);
+				return;
+			}
+			final int value = this._value;
+			next.executeNext(() -> next.runInt(() -> action.run(value), _mainStack));
+		});
+		return next;
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link #or(TaskActionOr)}, but recovers with an
+	 * <code>int</code> without boxing it.
+	 * </p>
+	 *
+	 * @param action The <i>or()</i> action.
+	 * @return The new task.
+	 */
+	public IntTask orInt(IntTaskActionOr action) {
+		if (this.isDone()) {
+			final Exception exception = this.exceptionNow();
+			if (exception == null || exception instanceof CancellationException) return this;
+		}
+		return this.orInt(action, this._executor);
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link #orNow(TaskActionOr)}, but recovers with an
+	 * <code>int</code> without boxing it.
+	 * </p>
+	 *
+	 * @param action The <i>or()</i> action.
+	 * @return The new task.
+	 */
+	public IntTask orIntNow(IntTaskActionOr action) {
+		if (!this.isDone()) return this.orInt(action, this._executor);
+		final Exception exception = this.exceptionNow();
+		if (exception == null || exception instanceof CancellationException) return this;
+		try {
+			return new IntTask(action.run(exception), this._executor);
+		} catch (Exception failure) {
+			return IntTask.failedInt(failure, this._executor);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link #orInt(IntTaskActionOr)}, but always runs the action
+	 * on the provided executor, even when this task is already complete.
+	 * </p>
+	 *
+	 * @param action   The <i>or()</i> action.
+	 * @param executor The executor to run the action on.
+	 * @return The new task.
+	 */
+	public IntTask orInt(IntTaskActionOr action, Executor executor) {
+		final IntTask next = new IntTask(executor);
+		final TaskStackTraces.CallerStack _mainStack = TaskStackTraces.capture();
+		this.linkCancellation(next);
+		this.onComplete(() -> {
+			final Exception exception = this.exceptionNow();
+			if (exception == null) {
+				next.settleInt(this._value);
+				return;
+			}
+			if (exception instanceof CancellationException) {
+				next.settleException(exception);
+				return;
+			}
+			next.executeNext(() -> next.runInt(() -> action.run(exception), _mainStack));
+		});
+		return next;
+	}
+
+	private static IntTask failedInt(Exception exception, Executor executor) {
+		final IntTask task = new IntTask(executor);
+		task.settleException(exception);
+		return task;
+	}
+
+}
@@ -0,0 +1,5 @@
+package com.github.j4m350n;
+
+public interface IntTaskActionMap {
+	int run(int value) throws Exception;
+}
@@ -0,0 +1,5 @@
+package com.github.j4m350n;
+
+public interface IntTaskActionOr {
+	int run(Exception exception) throws Exception;
+}
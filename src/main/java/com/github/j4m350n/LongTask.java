@@ -0,0 +1,257 @@
+package com.github.j4m350n;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>
+ * A {@link Task} specialized for <code>long</code> values. The value is
+ * kept in a primitive field, so chains of
+ * {@link #mapLong(LongTaskActionMap)} and {@link #orLong(LongTaskActionOr)}
+ * stages never box the value nor allocate a {@link TaskResult}.
+ * </p>
+ * <p>
+ * A <code>LongTask</code> is a regular <code>Task&lt;Long&gt;</code>, so
+ * it can be cancelled, given a timeout, passed to {@link Task#all(java.util.List)}
+ * or mapped into another type with {@link #map(TaskActionMap)}, which boxes
+ * the value once.
+ * </p>
+ *
+ * <pre>{@code
+ *   long result = new LongTask(() -> findLargestIdSomehow())
+ *     .mapLong(id -> id + 1)
+ *     .orLong(exception -> 1L)
+ *     .awaitLong();
+ * }</pre>
+ */
+public class LongTask extends Task<Long> {
+
+	/**
+	 * @param value The value returned by the task.
+	 * @return A task that is already complete with the value.
+	 */
+	public static LongTask complete(long value) {
+		return new LongTask(value, TaskScheduler.getDefaultExecutor());
+	}
+
+	/**
+	 * @param exception The exception to throw.
+	 * @return A task that already failed with the exception.
+	 */
+	public static LongTask failLong(Exception exception) {
+		return LongTask.failedLong(exception, TaskScheduler.getDefaultExecutor());
+	}
+
+	private long _value;
+
+	private LongTask(Executor executor) {
+		super((TaskResult<Long>) null, executor);
+	}
+
+	private LongTask(long value, Executor executor) {
+		this(executor);
+		this.settleLong(value);
+	}
+
+	public LongTask(LongTaskAction action) {
+		this(action, TaskScheduler.getDefaultExecutor());
+	}
+
+	/**
+	 * @param action   The action to run.
+	 * @param executor The executor to run the action on.
+	 */
+	public LongTask(LongTaskAction action, Executor executor) {
+		this(executor);
+		final TaskStackTraces.CallerStack _mainStack = TaskStackTraces.capture();
+		this.execute(() -> this.runLong(action, _mainStack));
+	}
+
+	private boolean settleLong(long value) {
+		if (!this.claim()) return false;
+		this._value = value;
+		this.release();
+		return true;
+	}
+
+	/**
+	 * Keep successful values in the primitive field, even when they are
+	 * passed in boxed by the generic {@link Task} code.
+	 */
+	@Override
+	boolean settleValue(Long value) {
+		return this.settleLong(value);
+	}
+
+	@Override
+	Long valueNow() {
+		return this._value;
+	}
+
+	private void runLong(LongTaskAction action, TaskStackTraces.CallerStack mainStack) {
+		this.track(() -> {
+			final long value;
+			try {
+				value = action.run();
+			} catch (Exception exception) {
+				TaskStackTraces.stitch(exception, mainStack);
+				this.settleException(exception);
+				return;
+			}
+			this.settleLong(value);
+		});
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link #await()}, but returns the value without boxing it.
+	 * </p>
+	 *
+	 * @return The completed value.
+	 */
+	public long awaitLong() {
+		this.waitUntilDone();
+		final Exception exception = this.exceptionNow();
+		if (exception != null) {
+			throw new RuntimeException(exception);
+		}
+		return this._value;
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link #map(TaskActionMap)}, but maps the value into another
+	 * <code>long</code> without boxing it.
+	 * </p>
+	 *
+	 * @param action The <i>map()</i> action.
+	 * @return The new task.
+	 */
+	public LongTask mapLong(LongTaskActionMap action) {
+		if (this.isDone()) {
+			final Exception exception = this.exceptionNow();
+			if (exception != null) return LongTask.failedLong(exception, this._executor);
+		}
+		return this.mapLong(action, this._executor);
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link #mapNow(TaskActionMap)}, but maps the value into
+	 * another <code>long</code> without boxing it.
+	 * </p>
+	 *
+	 * @param action The <i>map()</i> action.
+	 * @return The new task.
+	 */
+	public LongTask mapLongNow(LongTaskActionMap action) {
+		if (!this.isDone()) return this.mapLong(action, this._executor);
+		final Exception exception = this.exceptionNow();
+		if (exception != null) return LongTask.failedLong(exception, this._executor);
+		try {
+			return new LongTask(action.run(this._value), this._executor);
+		} catch (Exception failure) {
+			return LongTask.failedLong(failure, this._executor);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link #mapLong(LongTaskActionMap)}, but always runs the action
+	 * on the provided executor, even when this task is already complete.
+	 * </p>
+	 *
+	 * @param action   The <i>map()</i> action.
+	 * @param executor The executor to run the action on.
+	 * @return The new task.
+	 */
+	public LongTask mapLong(LongTaskActionMap action, Executor executor) {
+		final LongTask next = new LongTask(executor);
+		final TaskStackTraces.CallerStack _mainStack = TaskStackTraces.capture();
+		this.linkCancellation(next);
+		next.inheritDeadline(this);
+		this.onComplete(() -> {
+			final Exception exception = this.exceptionNow();
+			if (exception != null) {
+				next.settleException(exception);
+				return;
+			}
+			final long value = this._value;
+			next.executeNext(() -> next.runLong(() -> action.run(value), _mainStack));
+		});
+		return next;
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link #or(TaskActionOr)}, but recovers with a
+	 * <code>long</code> without boxing it.
+	 * </p>
+	 *
+	 * @param action The <i>or()</i> action.
+	 * @return The new task.
+	 */
+	public LongTask orLong(LongTaskActionOr action) {
+		if (this.isDone()) {
+			final Exception exception = this.exceptionNow();
+			if (exception == null || exception instanceof CancellationException) return this;
+		}
+		return this.orLong(action, this._executor);
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link #orNow(TaskActionOr)}, but recovers with a
+	 * <code>long</code> without boxing it.
+	 * </p>
+	 *
+	 * @param action The <i>or()</i> action.
+	 * @return The new task.
+	 */
+	public LongTask orLongNow(LongTaskActionOr action) {
+		if (!this.isDone()) return this.orLong(action, this._executor);
+		final Exception exception = this.exceptionNow();
+		if (exception == null || exception instanceof CancellationException) return this;
+		try {
+			return new LongTask(action.run(exception), this._executor);
+		} catch (Exception failure) {
+			return LongTask.failedLong(failure, this._executor);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link #orLong(LongTaskActionOr)}, but always runs the action
+	 * on the provided executor, even when this task is already complete.
+	 * </p>
+	 *
+	 * @param action   The <i>or()</i> action.
+	 * @param executor The executor to run the action on.
+	 * @return The new task.
+	 */
+	public LongTask orLong(LongTaskActionOr action, Executor executor) {
+		final LongTask next = new LongTask(executor);
+		final TaskStackTraces.CallerStack _mainStack = TaskStackTraces.capture();
+		this.linkCancellation(next);
+		this.onComplete(() -> {
+			final Exception exception = this.exceptionNow();
+			if (exception == null) {
+				next.settleLong(this._value);
+				return;
+			}
+			if (exception instanceof CancellationException) {
+				next.settleException(exception);
+				return;
+			}
+			next.executeNext(() -> next.runLong(() -> action.run(exception), _mainStack));
+		});
+		return next;
+	}
+
+	private static LongTask failedLong(Exception exception, Executor executor) {
+		final LongTask task = new LongTask(executor);
+		task.settleException(exception);
+		return task;
+	}
+
+}
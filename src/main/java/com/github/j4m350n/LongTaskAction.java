@@ -0,0 +1,5 @@
+package com.github.j4m350n;
+
+public interface LongTaskAction {
+	long run() throws Exception;
+}
@@ -0,0 +1,5 @@
+package com.github.j4m350n;
+
+public interface LongTaskActionMap {
+	long run(long value) throws Exception;
+}
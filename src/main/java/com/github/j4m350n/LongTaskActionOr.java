@@ -0,0 +1,5 @@
+package com.github.j4m350n;
+
+public interface LongTaskActionOr {
+	long run(Exception exception) throws Exception;
+}
@@ -1,8 +1,28 @@
 package com.github.j4m350n;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 public class Task<T> {
 
@@ -19,7 +39,7 @@ public class Task<T> {
 	 * @return Returns the task.
 	 */
 	public static <T> Task<T> complete(T value) {
-		return new Task<>(TaskResult.success(value));
+		return Task.succeeded(Objects.requireNonNull(value, NULL_VALUE), TaskScheduler.getDefaultExecutor());
 	}
 
 	/**
@@ -40,7 +60,34 @@ public class Task<T> {
 	 * @return Returns the task.
 	 */
 	public static <T> Task<T> fail(Exception exception) {
-		return new Task<>(TaskResult.failure(exception));
+		return Task.failed(Objects.requireNonNull(exception, NULL_EXCEPTION), TaskScheduler.getDefaultExecutor());
+	}
+
+	/**
+	 * <p>
+	 * A completed task without a meaningful value, for actions that are only
+	 * run for their side effects. The task is shared, so chaining onto it
+	 * does not allocate anything up front.
+	 * </p>
+	 *
+	 * <pre>{@code
+	 *   Task<TaskUnit> task = Task.done()
+	 *     .and(unit -> new Task<>(() -> {
+	 *       sendEmailSomehow();
+	 *       return TaskUnit.INSTANCE;
+	 *     }));
+	 * }</pre>
+	 *
+	 * @return The completed task.
+	 */
+	public static Task<TaskUnit> done() {
+		final Executor executor = TaskScheduler.getDefaultExecutor();
+		Task<TaskUnit> task = unit;
+		if (task == null || task._executor != executor) {
+			task = Task.succeeded(TaskUnit.INSTANCE, executor);
+			unit = task;
+		}
+		return task;
 	}
 
 	/**
@@ -49,6 +96,11 @@ public class Task<T> {
 	 * the provided tasks throws an exception, this entire task will
 	 * fail as well.
 	 * </p>
+	 * <p>
+	 * The returned task is driven by the completion of the provided tasks
+	 * and does not occupy a thread while waiting. It fails as soon as the
+	 * first provided task fails, without waiting for the others.
+	 * </p>
 	 *
 	 * <pre>{@code
 	 *   List<Task<Integer>> tasks = new List<>();
@@ -64,87 +116,1310 @@ public class Task<T> {
 	 * }
 	 * </pre>
 	 *
-	 * @param tasks The tasks to wait for.
-	 * @param <T>   The type of the values returned by the provided
-	 *              tasks.
-	 * @return A task that completes with a list of the returned values
-	 * by the provided tasks.
+	 * @param tasks The tasks to wait for.
+	 * @param <T>   The type of the values returned by the provided
+	 *              tasks.
+	 * @return A task that completes with a list of the returned values
+	 * by the provided tasks.
+	 */
+	public static <T> Task<List<T>> all(List<Task<T>> tasks) {
+		return all(tasks, TaskScheduler.getDefaultExecutor());
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link Task#all(List)}, but tasks chained onto the returned
+	 * task run on the provided executor.
+	 * </p>
+	 *
+	 * @param tasks    The tasks to wait for.
+	 * @param executor The executor of the returned task.
+	 * @param <T>      The type of the values returned by the provided
+	 *                 tasks.
+	 * @return A task that completes with a list of the returned values
+	 * by the provided tasks.
+	 */
+	public static <T> Task<List<T>> all(List<Task<T>> tasks, Executor executor) {
+		return allOf(tasks, executor);
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link Task#all(List)}, for an array of tasks.
+	 * </p>
+	 *
+	 * <pre>{@code
+	 *   List<Integer> result = Task.all(Task.complete(1), Task.complete(2)).await();
+	 * }</pre>
+	 *
+	 * @param tasks The tasks to wait for.
+	 * @param <T>   The type of the values returned by the provided
+	 *              tasks.
+	 * @return A task that completes with a list of the returned values
+	 * by the provided tasks.
+	 */
+	@SafeVarargs
+	public static <T> Task<List<T>> all(Task<T>... tasks) {
+		return allOf(Arrays.asList(tasks), TaskScheduler.getDefaultExecutor());
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link Task#all(List)}, for any iterable of tasks. A
+	 * {@link Collection} is used as is, any other iterable is copied once
+	 * so the result storage can be allocated up front.
+	 * </p>
+	 *
+	 * @param tasks The tasks to wait for.
+	 * @param <T>   The type of the values returned by the provided
+	 *              tasks.
+	 * @return A task that completes with a list of the returned values
+	 * by the provided tasks.
+	 */
+	public static <T> Task<List<T>> all(Iterable<Task<T>> tasks) {
+		final Collection<Task<T>> collection;
+		if (tasks instanceof Collection) {
+			collection = (Collection<Task<T>>) tasks;
+		} else {
+			collection = new ArrayList<>();
+			tasks.forEach(collection::add);
+		}
+		return allOf(collection, TaskScheduler.getDefaultExecutor());
+	}
+
+	/**
+	 * <p>
+	 * Wait for every provided task to complete, successfully or not, and
+	 * complete with their results in the same order. Unlike
+	 * {@link Task#all(List)}, a failed task does not fail the returned
+	 * task, so partial success can be inspected.
+	 * </p>
+	 *
+	 * <pre>{@code
+	 *   List<TaskResult<Integer>> results = Task.allSettled(tasks).await();
+	 *   long failures = results.stream().filter(result -> result.didThrow).count();
+	 * }</pre>
+	 *
+	 * @param tasks The tasks to wait for.
+	 * @param <T>   The type of the values returned by the provided
+	 *              tasks.
+	 * @return A task that completes with a list of the results of the
+	 * provided tasks.
+	 */
+	public static <T> Task<List<TaskResult<T>>> allSettled(List<Task<T>> tasks) {
+		return settledOf(tasks, TaskScheduler.getDefaultExecutor());
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link Task#allSettled(List)}, for an array of tasks.
+	 * </p>
+	 *
+	 * @param tasks The tasks to wait for.
+	 * @param <T>   The type of the values returned by the provided
+	 *              tasks.
+	 * @return A task that completes with a list of the results of the
+	 * provided tasks.
+	 */
+	@SafeVarargs
+	public static <T> Task<List<TaskResult<T>>> allSettled(Task<T>... tasks) {
+		return settledOf(Arrays.asList(tasks), TaskScheduler.getDefaultExecutor());
+	}
+
+	/**
+	 * <p>
+	 * Complete with the value of the first provided task that succeeds.
+	 * The returned task only fails if every provided task fails, with the
+	 * exception of the task that failed last. Once a task succeeds, the
+	 * other provided tasks are cancelled, unless other tasks still depend
+	 * on them.
+	 * </p>
+	 *
+	 * <pre>{@code
+	 *   // Hedge a request over two replicas and keep the first answer.
+	 *   User user = Task.any(
+	 *     new Task<>(() -> primary.findUser(id)),
+	 *     new Task<>(() -> replica.findUser(id))
+	 *   ).await();
+	 * }</pre>
+	 *
+	 * @param tasks The tasks to wait for.
+	 * @param <T>   The type of the values returned by the provided
+	 *              tasks.
+	 * @return A task that completes with the first successful value.
+	 */
+	@SafeVarargs
+	public static <T> Task<T> any(Task<T>... tasks) {
+		return any(Arrays.asList(tasks));
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link Task#any(Task[])}, for a list of tasks.
+	 * </p>
+	 *
+	 * @param tasks The tasks to wait for.
+	 * @param <T>   The type of the values returned by the provided
+	 *              tasks.
+	 * @return A task that completes with the first successful value.
+	 */
+	public static <T> Task<T> any(List<Task<T>> tasks) {
+		return firstOf(tasks, true);
+	}
+
+	/**
+	 * <p>
+	 * Complete with the result of the first provided task that completes,
+	 * whether it succeeds or fails. Once a task completes, the other
+	 * provided tasks are cancelled, unless other tasks still depend on
+	 * them.
+	 * </p>
+	 *
+	 * <pre>{@code
+	 *   Integer result = Task.race(
+	 *     new Task<>(() -> slowLookup()),
+	 *     Task.complete(123)
+	 *   ).await();
+	 *
+	 *   Assertions.assertEquals(123, result);
+	 * }</pre>
+	 *
+	 * @param tasks The tasks to wait for.
+	 * @param <T>   The type of the values returned by the provided
+	 *              tasks.
+	 * @return A task that completes with the first result.
+	 */
+	@SafeVarargs
+	public static <T> Task<T> race(Task<T>... tasks) {
+		return race(Arrays.asList(tasks));
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link Task#race(Task[])}, for a list of tasks.
+	 * </p>
+	 *
+	 * @param tasks The tasks to wait for.
+	 * @param <T>   The type of the values returned by the provided
+	 *              tasks.
+	 * @return A task that completes with the first result.
+	 */
+	public static <T> Task<T> race(List<Task<T>> tasks) {
+		return firstOf(tasks, false);
+	}
+
+	/**
+	 * <p>
+	 * Run the action for every input with at most
+	 * <code>maxConcurrency</code> actions in flight, and complete with the
+	 * outputs in the same order as the inputs. Only as many workers as the
+	 * concurrency allows are used, however many inputs there are, and the
+	 * task fails as soon as an action fails.
+	 * </p>
+	 *
+	 * <pre>{@code
+	 *   List<User> users = Task.mapParallel(ids, id -> findUserSomehow(id), 16)
+	 *     .await();
+	 * }</pre>
+	 *
+	 * @param inputs         The inputs to run the action for.
+	 * @param action         The action to run for each input.
+	 * @param maxConcurrency The maximum amount of actions in flight.
+	 * @param <I>            The type of the inputs.
+	 * @param <O>            The type of the outputs.
+	 * @return A task that completes with the outputs.
+	 */
+	public static <I, O> Task<List<O>> mapParallel(Collection<I> inputs, TaskActionMap<O, I> action, int maxConcurrency) {
+		return mapParallel(inputs, action, maxConcurrency, TaskScheduler.getDefaultExecutor());
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link Task#mapParallel(Collection, TaskActionMap, int)}, but
+	 * runs the actions on the provided executor.
+	 * </p>
+	 *
+	 * @param inputs         The inputs to run the action for.
+	 * @param action         The action to run for each input.
+	 * @param maxConcurrency The maximum amount of actions in flight.
+	 * @param executor       The executor to run the actions on.
+	 * @param <I>            The type of the inputs.
+	 * @param <O>            The type of the outputs.
+	 * @return A task that completes with the outputs.
+	 */
+	public static <I, O> Task<List<O>> mapParallel(
+		Collection<I> inputs,
+		TaskActionMap<O, I> action,
+		int maxConcurrency,
+		Executor executor
+	) {
+		return TaskParallel.map(inputs, action, maxConcurrency, executor);
+	}
+
+	/**
+	 * <p>
+	 * Streaming version of
+	 * {@link Task#mapParallel(Collection, TaskActionMap, int)} for inputs
+	 * that do not fit in memory. Inputs are only pulled from the iterator
+	 * while fewer than <code>maxConcurrency</code> outputs are in flight
+	 * or waiting for the consumer, and the consumer receives the outputs
+	 * one at a time and in input order.
+	 * </p>
+	 *
+	 * <pre>{@code
+	 *   Task.mapParallel(
+	 *     Files.lines(path).iterator(),
+	 *     line -> enrichSomehow(line),
+	 *     32,
+	 *     enriched -> writer.write(enriched)
+	 *   ).await();
+	 * }</pre>
+	 *
+	 * @param inputs         The inputs to run the action for.
+	 * @param action         The action to run for each input.
+	 * @param maxConcurrency The maximum amount of actions in flight.
+	 * @param consumer       The consumer of the outputs.
+	 * @param <I>            The type of the inputs.
+	 * @param <O>            The type of the outputs.
+	 * @return A task that completes once every output was consumed.
+	 */
+	public static <I, O> Task<TaskUnit> mapParallel(
+		Iterator<? extends I> inputs,
+		TaskActionMap<O, I> action,
+		int maxConcurrency,
+		TaskActionEach<O> consumer
+	) {
+		return mapParallel(inputs, action, maxConcurrency, consumer, TaskScheduler.getDefaultExecutor());
+	}
+
+	/**
+	 * <p>
+	 * Same as
+	 * {@link Task#mapParallel(Iterator, TaskActionMap, int, TaskActionEach)},
+	 * but runs the actions and the consumer on the provided executor.
+	 * </p>
+	 *
+	 * @param inputs         The inputs to run the action for.
+	 * @param action         The action to run for each input.
+	 * @param maxConcurrency The maximum amount of actions in flight.
+	 * @param consumer       The consumer of the outputs.
+	 * @param executor       The executor to run the actions on.
+	 * @param <I>            The type of the inputs.
+	 * @param <O>            The type of the outputs.
+	 * @return A task that completes once every output was consumed.
+	 */
+	public static <I, O> Task<TaskUnit> mapParallel(
+		Iterator<? extends I> inputs,
+		TaskActionMap<O, I> action,
+		int maxConcurrency,
+		TaskActionEach<O> consumer,
+		Executor executor
+	) {
+		return TaskParallel.stream(inputs, action, maxConcurrency, consumer, executor);
+	}
+
+	/**
+	 * <p>
+	 * Run the action, and run it again when it fails, as described by the
+	 * provided policy. The wait between two attempts is scheduled on a
+	 * shared timer, so no thread is held while the task backs off. Once
+	 * the policy gives up, the task fails with the exception of the last
+	 * attempt, and the exceptions of the earlier attempts are added to it
+	 * as suppressed exceptions. Cancelling the task cancels the running
+	 * attempt and stops any further ones.
+	 * </p>
+	 *
+	 * <pre>{@code
+	 *   Task<User> user = Task.retrying(
+	 *     () -> findUserSomehow(),
+	 *     TaskRetryPolicy.attempts(3).withJitter(0.5)
+	 *   );
+	 * }</pre>
+	 *
+	 * @param action The action to run.
+	 * @param policy How often and how fast to retry the action.
+	 * @param <T>    The return type of the action.
+	 * @return A task that completes with the value of the first successful
+	 * attempt.
+	 */
+	public static <T> Task<T> retrying(TaskAction<T> action, TaskRetryPolicy policy) {
+		return Task.retrying(action, policy, TaskScheduler.getDefaultExecutor());
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link Task#retrying(TaskAction, TaskRetryPolicy)}, but runs
+	 * every attempt on the provided executor.
+	 * </p>
+	 *
+	 * @param action   The action to run.
+	 * @param policy   How often and how fast to retry the action.
+	 * @param executor The executor to run the attempts on.
+	 * @param <T>      The return type of the action.
+	 * @return A task that completes with the value of the first successful
+	 * attempt.
+	 */
+	public static <T> Task<T> retrying(TaskAction<T> action, TaskRetryPolicy policy, Executor executor) {
+		Objects.requireNonNull(action, "Could not retry the action: the action cannot be null!");
+		Objects.requireNonNull(policy, "Could not retry the action: the policy cannot be null!");
+		return TaskRetry.run(action, policy, executor);
+	}
+
+	/**
+	 * <p>
+	 * Create a task that completes once the provided duration has passed.
+	 * No thread waits in the meantime, the delay is kept by a shared timer
+	 * that handles any amount of pending delays and timeouts at a constant
+	 * cost each.
+	 * </p>
+	 *
+	 * <pre>{@code
+	 *   Task<User> user = Task.delay(Duration.ofMillis(100))
+	 *     .map(unit -> findUserSomehow());
+	 * }</pre>
+	 *
+	 * @param delay How long to wait.
+	 * @return A task that completes with {@link TaskUnit#INSTANCE} once the
+	 * delay has passed.
+	 */
+	public static Task<TaskUnit> delay(Duration delay) {
+		final long nanos = checkDelay(delay);
+		final Task<TaskUnit> next = Task.pending(TaskScheduler.getDefaultExecutor());
+		final TaskTimer.Timeout timeout = TaskTimer.schedule(() -> next.settleValue(TaskUnit.INSTANCE), nanos);
+		next.onComplete(timeout::cancel);
+		return next;
+	}
+
+	/**
+	 * <p>
+	 * Run the action once the provided duration has passed. Cancelling the
+	 * task before then makes sure the action never runs.
+	 * </p>
+	 *
+	 * <pre>{@code
+	 *   Task<Report> report = Task.schedule(Duration.ofMinutes(5), () -> buildReportSomehow());
+	 * }</pre>
+	 *
+	 * @param delay  How long to wait before running the action.
+	 * @param action The action to run.
+	 * @param <T>    The return type of the action.
+	 * @return A task that completes with the value of the action.
+	 */
+	public static <T> Task<T> schedule(Duration delay, TaskAction<T> action) {
+		return Task.schedule(delay, action, TaskScheduler.getDefaultExecutor());
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link Task#schedule(Duration, TaskAction)}, but runs the
+	 * action on the provided executor.
+	 * </p>
+	 *
+	 * @param delay    How long to wait before running the action.
+	 * @param action   The action to run.
+	 * @param executor The executor to run the action on.
+	 * @param <T>      The return type of the action.
+	 * @return A task that completes with the value of the action.
+	 */
+	public static <T> Task<T> schedule(Duration delay, TaskAction<T> action, Executor executor) {
+		final long nanos = checkDelay(delay);
+		Objects.requireNonNull(action, "Could not schedule the task: the action cannot be null!");
+		final Task<T> next = Task.pending(executor);
+		final TaskStackTraces.CallerStack _mainStack = TaskStackTraces.capture();
+		final TaskTimer.Timeout timeout = TaskTimer.schedule(
+			() -> next.execute(() -> next.apply(ignored -> action.run(), null, _mainStack)),
+			nanos
+		);
+		next.onComplete(timeout::cancel);
+		return next;
+	}
+
+	/**
+	 * <p>
+	 * Run the action once the initial delay has passed and then once every
+	 * period, until the returned task is cancelled or the action fails.
+	 * The action gets the number of the run, starting at <code>0</code>.
+	 * Runs never overlap: a run that takes longer than the period delays
+	 * the next one, which then starts right away.
+	 * </p>
+	 *
+	 * <pre>{@code
+	 *   Task<TaskUnit> polling = Task.schedulePeriodic(
+	 *     Duration.ZERO,
+	 *     Duration.ofSeconds(10),
+	 *     run -> pollSomehow()
+	 *   );
+	 *   // ...
+	 *   polling.cancel();
+	 * }</pre>
+	 *
+	 * @param initialDelay How long to wait before the first run.
+	 * @param period       The time between the start of two runs.
+	 * @param action       The action to run.
+	 * @return A task that only completes when it is cancelled or when the
+	 * action fails.
+	 */
+	public static Task<TaskUnit> schedulePeriodic(Duration initialDelay, Duration period, TaskActionEach<Long> action) {
+		return Task.schedulePeriodic(initialDelay, period, action, TaskScheduler.getDefaultExecutor());
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link Task#schedulePeriodic(Duration, Duration, TaskActionEach)},
+	 * but runs the action on the provided executor.
+	 * </p>
+	 *
+	 * @param initialDelay How long to wait before the first run.
+	 * @param period       The time between the start of two runs.
+	 * @param action       The action to run.
+	 * @param executor     The executor to run the action on.
+	 * @return A task that only completes when it is cancelled or when the
+	 * action fails.
+	 */
+	public static Task<TaskUnit> schedulePeriodic(
+		Duration initialDelay,
+		Duration period,
+		TaskActionEach<Long> action,
+		Executor executor
+	) {
+		final long nanos = checkDelay(initialDelay);
+		if (period.isNegative() || period.isZero()) {
+			throw new IllegalArgumentException("Could not schedule the task: the period must be positive!");
+		}
+		Objects.requireNonNull(action, "Could not schedule the task: the action cannot be null!");
+		return TaskPeriodic.start(action, nanos, period.toNanos(), executor);
+	}
+
+	/**
+	 * <p>
+	 * Create a task that only runs the action once something needs its
+	 * value: the first time it is awaited, a stage is chained onto it, or
+	 * {@link #start()} is called. The action runs at most once. This
+	 * avoids starting work for speculative branches that may never be
+	 * taken. Cancelling the task before it started makes sure the action
+	 * never runs.
+	 * </p>
+	 *
+	 * <pre>{@code
+	 *   Task<Report> report = Task.lazy(() -> buildReportSomehow());
+	 *   if (requested) {
+	 *     send(report.await());
+	 *   }
+	 * }</pre>
+	 *
+	 * @param action The action to run.
+	 * @param <T>    The return type of the action.
+	 * @return The lazy task.
+	 */
+	public static <T> Task<T> lazy(TaskAction<T> action) {
+		return Task.lazy(action, TaskScheduler.getDefaultExecutor());
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link Task#lazy(TaskAction)}, but runs the action on the
+	 * provided executor.
+	 * </p>
+	 *
+	 * @param action   The action to run.
+	 * @param executor The executor to run the action on.
+	 * @param <T>      The return type of the action.
+	 * @return The lazy task.
+	 */
+	public static <T> Task<T> lazy(TaskAction<T> action, Executor executor) {
+		Objects.requireNonNull(action, "Could not create the lazy task: the action cannot be null!");
+		return TaskLazy.ofAction(action, executor);
+	}
+
+	/**
+	 * <p>
+	 * Create a task that only creates the task it completes with once
+	 * something needs its value, like {@link Task#lazy(TaskAction)}. This
+	 * defers a whole pipeline, including the tasks it starts right away.
+	 * </p>
+	 *
+	 * <pre>{@code
+	 *   Task<User> user = Task.defer(() -> findUserId().and(id -> loadUserSomehow(id)));
+	 * }</pre>
+	 *
+	 * @param factory The action that creates the task.
+	 * @param <T>     The return type of the created task.
+	 * @return The lazy task.
+	 */
+	public static <T> Task<T> defer(TaskAction<Task<T>> factory) {
+		Objects.requireNonNull(factory, "Could not create the lazy task: the factory cannot be null!");
+		return TaskLazy.ofFactory(factory, TaskScheduler.getDefaultExecutor());
+	}
+
+	/**
+	 * <p>
+	 * Create a task that completes with the provided stage, without a
+	 * thread waiting for it. The task completes on the thread that
+	 * completes the stage. A failure of the stage is unwrapped from its
+	 * {@link CompletionException}, and cancelling the task cancels the
+	 * stage as well when it is a {@link Future}.
+	 * </p>
+	 * <p>
+	 * Like an action, the stage cannot complete with <code>null</code>, so
+	 * a <code>CompletionStage&lt;Void&gt;</code> should be mapped to
+	 * {@link TaskUnit#INSTANCE} first.
+	 * </p>
+	 *
+	 * <pre>{@code
+	 *   Task<HttpResponse<String>> response = Task.fromFuture(
+	 *     client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+	 *   );
+	 * }</pre>
+	 *
+	 * @param stage The stage to complete with.
+	 * @param <T>   The type of the value of the stage.
+	 * @return A task that completes with the outcome of the stage.
+	 */
+	public static <T> Task<T> fromFuture(CompletionStage<T> stage) {
+		Objects.requireNonNull(stage, "Could not create the task: the stage cannot be null!");
+		final Task<T> next = Task.pending(TaskScheduler.getDefaultExecutor());
+		if (stage instanceof Future) {
+			final Future<?> future = (Future<?>) stage;
+			next.onComplete(() -> {
+				if (next.isAbandoned()) {
+					Task.runForeign(() -> future.cancel(true));
+				}
+			});
+		}
+		stage.whenComplete((value, throwable) -> {
+			if (throwable == null) {
+				if (value == null) {
+					next.settleException(new NullPointerException(NULL_VALUE));
+				} else {
+					next.settleValue(value);
+				}
+				return;
+			}
+			Throwable cause = throwable;
+			if (cause instanceof CompletionException && cause.getCause() != null) {
+				cause = cause.getCause();
+			}
+			next.settleException(cause instanceof Exception ? (Exception) cause : new ExecutionException(cause));
+		});
+		return next;
+	}
+
+	/**
+	 * <p>
+	 * Run the action, unless an action for the same key is running
+	 * already, in which case the returned task completes with the result
+	 * of that one. This collapses a stampede of identical loads into a
+	 * single one. The key is forgotten once the action completes, so
+	 * nothing is cached, see {@link TaskCache} to coalesce loads of a
+	 * single kind with a fixed loader.
+	 * </p>
+	 * <p>
+	 * Keys are shared by the whole process, so they should tell apart
+	 * different kinds of actions as well as their arguments.
+	 * </p>
+	 *
+	 * <pre>{@code
+	 *   Task<User> user = Task.singleFlight("user:" + id, () -> loadUserSomehow(id));
+	 * }</pre>
+	 *
+	 * @param key    The key that identifies the action.
+	 * @param action The action to run.
+	 * @param <T>    The return type of the action.
+	 * @return A task that completes with the value of the shared action.
+	 */
+	public static <T> Task<T> singleFlight(Object key, TaskAction<T> action) {
+		Objects.requireNonNull(key, "Could not run the action: the key cannot be null!");
+		Objects.requireNonNull(action, "Could not run the action: the action cannot be null!");
+		return TaskCache.singleFlight(key, action, TaskScheduler.getDefaultExecutor());
+	}
+
+	private static long checkDelay(Duration delay) {
+		if (delay.isNegative()) {
+			throw new IllegalArgumentException("Could not schedule the task: the delay cannot be negative!");
+		}
+		return TimeUnit.NANOSECONDS.convert(delay);
+	}
+
+	private static <T> Task<T> firstOf(List<Task<T>> tasks, boolean successOnly) {
+		if (tasks.isEmpty()) {
+			throw new IllegalArgumentException("Could not wait for the first task: no tasks were provided!");
+		}
+		final int size = tasks.size();
+		final AtomicInteger remaining = new AtomicInteger(size);
+		final Task<T> next = Task.pending(TaskScheduler.getDefaultExecutor());
+		// Link every task before any of them can win, so the winner knows
+		// which of the others count the returned task as a dependent.
+		final boolean[] linked = new boolean[size];
+		for (int i = 0; i < size; i++) {
+			linked[i] = tasks.get(i).linkCancellation(next);
+		}
+		for (int i = 0; i < size; i++) {
+			final int winner = i;
+			final Task<T> task = tasks.get(i);
+			if (next.isDone()) break;
+			task.onComplete(() -> {
+				if (task.exceptionNow() != null && successOnly && remaining.decrementAndGet() != 0) return;
+				// A race that ends cancelled or timed out already released
+				// every task through linkCancellation().
+				if (!next.settleFrom(task) || next.isAbandoned()) return;
+				for (int j = 0; j < size; j++) {
+					if (j != winner && linked[j]) tasks.get(j).releaseDependent();
+				}
+			});
+		}
+		return next;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> Task<List<T>> allOf(Collection<Task<T>> tasks, Executor executor) {
+		final int size = tasks.size();
+		if (size == 0) return Task.succeeded(List.of(), executor);
+		final Object[] values = new Object[size];
+		final AtomicInteger remaining = new AtomicInteger(size);
+		final Task<List<T>> next = Task.pending(executor);
+		int index = 0;
+		for (Task<T> task : tasks) {
+			if (next.isDone()) break;
+			final int i = index++;
+			task.linkCancellation(next);
+			task.onComplete(() -> {
+				Exception exception = task.exceptionNow();
+				if (exception != null) {
+					next.settleException(exception);
+					return;
+				}
+				values[i] = task.valueNow();
+				if (remaining.decrementAndGet() == 0) {
+					next.settleValue(Collections.unmodifiableList(Arrays.asList((T[]) values)));
+				}
+			});
+		}
+		return next;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> Task<List<TaskResult<T>>> settledOf(Collection<Task<T>> tasks, Executor executor) {
+		final int size = tasks.size();
+		if (size == 0) return Task.succeeded(List.of(), executor);
+		final TaskResult<?>[] results = new TaskResult<?>[size];
+		final AtomicInteger remaining = new AtomicInteger(size);
+		final Task<List<TaskResult<T>>> next = Task.pending(executor);
+		int index = 0;
+		for (Task<T> task : tasks) {
+			final int i = index++;
+			task.linkCancellation(next);
+			task.onComplete(() -> {
+				results[i] = task.resultNow();
+				if (remaining.decrementAndGet() == 0) {
+					next.settleValue(Collections.unmodifiableList(Arrays.asList((TaskResult<T>[]) results)));
+				}
+			});
+		}
+		return next;
+	}
+
+	static final String NULL_VALUE = "Could not complete the task: the returned action value cannot be null!";
+	private static final String NULL_EXCEPTION = "Could not fail the task: the thrown exception cannot be null!";
+	static final String NULL_TASK = "Could not chain the task: the returned task cannot be null!";
+
+	private static final int PENDING = 0;
+	private static final int COMPLETING = 1;
+	private static final int DONE = 2;
+
+	private static final int NOT_INTERRUPTED = 0;
+	private static final int INTERRUPTING = 1;
+	private static final int INTERRUPTED = 2;
+
+	/**
+	 * Marks the stack of a completed task, nothing can be pushed onto it
+	 * anymore.
+	 */
+	private static final Node CLOSED = new Node(null);
+
+	private static final VarHandle STATE;
+	private static final VarHandle STACK;
+	private static final VarHandle DEPENDENTS;
+
+	static {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			STATE = lookup.findVarHandle(Task.class, "_state", int.class);
+			STACK = lookup.findVarHandle(Task.class, "_stack", Node.class);
+			DEPENDENTS = lookup.findVarHandle(Task.class, "_dependents", int.class);
+		} catch (ReflectiveOperationException exception) {
+			throw new ExceptionInInitializerError(exception);
+		}
+	}
+
+	private static volatile Task<TaskUnit> unit;
+
+	private static final ThreadLocal<Trampoline> TRAMPOLINE = ThreadLocal.withInitial(Trampoline::new);
+
+	/**
+	 * How many <i>and()</i> actions may run inline on top of each other
+	 * before the next one is handed to the executor to unwind the stack.
+	 */
+	private static final int MAX_INLINE_DEPTH = 32;
+
+	/**
+	 * The outcome of the task, stored directly instead of in a
+	 * {@link TaskResult} so completing a task allocates nothing. Exactly
+	 * one of both is set, and they are only read once {@link #_state} is
+	 * {@link #DONE}, the volatile write of the state publishes them.
+	 */
+	private T _value;
+	private Exception _exception;
+	protected final Executor _executor;
+	private volatile int _state;
+	/**
+	 * Lock-free stack of parked waiters and continuations, replaced by
+	 * {@link #CLOSED} once the task completes.
+	 */
+	private volatile Node _stack;
+	private volatile int _dependents;
+	private volatile Thread _runner;
+	private volatile int _interruptState;
+	private volatile TaskTimer.Timeout _timeout;
+
+	public Task(TaskResult<T> result) {
+		this(Objects.requireNonNull(result, "Could not instantiate Task: the result cannot be null!"), TaskScheduler.getDefaultExecutor());
+	}
+
+	/**
+	 * Create a task with the provided result, or a pending task that is
+	 * completed later through {@link #settle(TaskResult)} if the result is
+	 * <code>null</code>.
+	 */
+	Task(TaskResult<T> result, Executor executor) {
+		if (executor == null) {
+			throw new NullPointerException("Could not instantiate Task: the executor cannot be null!");
+		}
+		this._executor = executor;
+		if (result != null) {
+			this._value = result.value;
+			this._exception = result.exception;
+			this._stack = CLOSED;
+			this._state = DONE;
+		}
+	}
+
+	/**
+	 * Create a completed task without allocating a {@link TaskResult}.
+	 */
+	private Task(T value, Exception exception, Executor executor) {
+		this._executor = executor;
+		this._value = value;
+		this._exception = exception;
+		this._stack = CLOSED;
+		this._state = DONE;
+	}
+
+	static <T> Task<T> succeeded(T value, Executor executor) {
+		return new Task<>(value, null, executor);
+	}
+
+	static <T> Task<T> failed(Exception exception, Executor executor) {
+		return new Task<>(null, exception, executor);
+	}
+
+	static <T> Task<T> pending(Executor executor) {
+		return new Task<>((TaskResult<T>) null, executor);
+	}
+
+	public Task(TaskAction<T> action) {
+		this(action, TaskScheduler.getDefaultExecutor());
+	}
+
+	/**
+	 * <p>
+	 * Run the action on the provided executor instead of the default one
+	 * from {@link TaskScheduler#getDefaultExecutor()}. Tasks derived from
+	 * this one with {@link #map(TaskActionMap)}, {@link #and(TaskActionAnd)}
+	 * and {@link #or(TaskActionOr)} run on the same executor.
+	 * </p>
+	 *
+	 * @param action   The action to run.
+	 * @param executor The executor to run the action on.
+	 */
+	public Task(TaskAction<T> action, Executor executor) {
+		this((TaskResult<T>) null, executor);
+		final TaskStackTraces.CallerStack _mainStack = TaskStackTraces.capture();
+		this.execute(() -> this.apply(ignored -> action.run(), null, _mainStack));
+	}
+
+	public Task(TaskResultAction<T> action) {
+		this(action, TaskScheduler.getDefaultExecutor());
+	}
+
+	/**
+	 * <p>
+	 * Run the action on the provided executor instead of the default one
+	 * from {@link TaskScheduler#getDefaultExecutor()}.
+	 * </p>
+	 *
+	 * @param action   The action to run.
+	 * @param executor The executor to run the action on.
+	 */
+	public Task(TaskResultAction<T> action, Executor executor) {
+		this((TaskResult<T>) null, executor);
+		final TaskStackTraces.CallerStack _mainStack = TaskStackTraces.capture();
+		this.execute(() -> this.run(action, _mainStack));
+	}
+
+	public Task(TaskCancellableAction<T> action) {
+		this(action, TaskScheduler.getDefaultExecutor());
+	}
+
+	/**
+	 * <p>
+	 * Run an action that receives a {@link TaskCancellationToken}, so it can
+	 * stop early once the task is cancelled, on the provided executor.
+	 * </p>
+	 *
+	 * <pre>{@code
+	 *   Task<Integer> task = new Task<>(token -> {
+	 *     int pages = 0;
+	 *     while (hasNextPage()) {
+	 *       token.throwIfCancelled();
+	 *       fetchNextPage();
+	 *       pages++;
+	 *     }
+	 *     return pages;
+	 *   }, executor);
+	 * }</pre>
+	 *
+	 * @param action   The action to run.
+	 * @param executor The executor to run the action on.
+	 */
+	public Task(TaskCancellableAction<T> action, Executor executor) {
+		this((TaskResult<T>) null, executor);
+		final TaskCancellationToken token = new TaskCancellationToken(this);
+		final TaskStackTraces.CallerStack _mainStack = TaskStackTraces.capture();
+		this.execute(() -> this.apply(action::run, token, _mainStack));
+	}
+
+	void execute(Runnable runnable) {
+		final Trampoline trampoline = TRAMPOLINE.get();
+		final boolean releasing = trampoline.releasing;
+		final boolean open = trampoline.open;
+		trampoline.releasing = false;
+		trampoline.open = false;
+		try {
+			this._executor.execute(runnable);
+		} catch (RejectedExecutionException exception) {
+			this.settleException(exception);
+		} finally {
+			trampoline.releasing = releasing;
+			trampoline.open = open;
+		}
+	}
+
+	/**
+	 * <p>
+	 * Run code that does not belong to the library, such as a callback of
+	 * the user, from a continuation. Tasks completed by that code run their
+	 * continuations right away, instead of queueing them on the
+	 * {@link #release()} in progress or fusing them onto the current
+	 * worker, which would never get to them if the code waits for one of
+	 * those tasks. For the same reason a stage already fused onto the
+	 * current worker is handed back to its executor first.
+	 * </p>
+	 *
+	 * @param body The code to run.
+	 */
+	static void runForeign(Runnable body) {
+		final Trampoline trampoline = TRAMPOLINE.get();
+		if (trampoline.next != null) {
+			final Runnable next = trampoline.next;
+			final Task<?> nextTask = trampoline.nextTask;
+			trampoline.next = null;
+			trampoline.nextTask = null;
+			nextTask.execute(next);
+		}
+		final boolean releasing = trampoline.releasing;
+		final boolean open = trampoline.open;
+		if (!releasing && !open) {
+			body.run();
+			return;
+		}
+		trampoline.releasing = false;
+		trampoline.open = false;
+		try {
+			body.run();
+		} finally {
+			trampoline.releasing = releasing;
+			trampoline.open = open;
+		}
+	}
+
+	/**
+	 * <p>
+	 * Complete the task with the provided result, wake up every thread
+	 * waiting for it and run the registered continuations on the current
+	 * thread. Only the first call has any effect.
+	 * </p>
+	 *
+	 * @param result The result of the task.
+	 * @return Whether this call completed the task.
+	 */
+	final boolean settle(TaskResult<T> result) {
+		return result.didThrow ? this.settleException(result.exception) : this.settleValue(result.value);
+	}
+
+	/**
+	 * Same as {@link #settle(TaskResult)} for a successful value.
+	 */
+	boolean settleValue(T value) {
+		if (!this.claim()) return false;
+		this._value = value;
+		this.release();
+		return true;
+	}
+
+	/**
+	 * Same as {@link #settle(TaskResult)} for a failure.
+	 */
+	final boolean settleException(Exception exception) {
+		if (!this.claim()) return false;
+		this._exception = exception;
+		this.release();
+		return true;
+	}
+
+	/**
+	 * Complete the task with the outcome of the provided completed task.
+	 */
+	final boolean settleFrom(Task<? extends T> other) {
+		final Exception exception = other.exceptionNow();
+		return exception != null ? this.settleException(exception) : this.settleValue(other.valueNow());
+	}
+
+	/**
+	 * Reserve the right to complete the task. Only the caller that claimed
+	 * the task may store its outcome, and it must then call
+	 * {@link #release()}.
+	 *
+	 * @return Whether the task was claimed, <code>false</code> if it was
+	 * already completed.
+	 */
+	final boolean claim() {
+		return STATE.compareAndSet(this, PENDING, COMPLETING);
+	}
+
+	/**
+	 * Publish the outcome stored after {@link #claim()}, wake up every
+	 * waiting thread and run the registered continuations.
+	 */
+	final void release() {
+		this._state = DONE;
+		final Node last = (Node) STACK.getAndSet(this, CLOSED);
+		if (last == null) return;
+		// The stack is LIFO, chain it the other way around so continuations
+		// run in the order they were registered in. Waiters that gave up may
+		// still be unlinking themselves through next, so the chain goes
+		// through after instead.
+		Node reversed = null;
+		for (Node node = last; node != null; node = node.next) {
+			node.after = reversed;
+			reversed = node;
+		}
+		final Trampoline trampoline = TRAMPOLINE.get();
+		if (trampoline.releasing) {
+			// A continuation of another task completed this one, queue the
+			// continuations on the outermost call instead of growing the
+			// stack, so long chains of tasks complete in constant stack.
+			if (trampoline.deferred == null) {
+				trampoline.deferred = reversed;
+			} else {
+				trampoline.deferredLast.after = reversed;
+			}
+			trampoline.deferredLast = last;
+			return;
+		}
+		// Stages completed as part of the stage the worker is running may
+		// be fused onto the worker, see executeNext().
+		final boolean fusing = trampoline.current == this && !trampoline.open;
+		trampoline.open |= fusing;
+		trampoline.releasing = true;
+		RuntimeException failure = null;
+		try {
+			while (reversed != null) {
+				Object item = reversed.item;
+				reversed = reversed.after;
+				if (item instanceof Thread) {
+					LockSupport.unpark((Thread) item);
+				} else if (item != null) {
+					try {
+						((Runnable) item).run();
+					} catch (RuntimeException exception) {
+						// Keep waking up the others before rethrowing.
+						if (failure == null) {
+							failure = exception;
+						} else {
+							failure.addSuppressed(exception);
+						}
+					}
+				}
+				if (reversed == null) {
+					reversed = trampoline.deferred;
+					trampoline.deferred = null;
+					trampoline.deferredLast = null;
+				}
+			}
+		} finally {
+			trampoline.releasing = false;
+			if (fusing) {
+				trampoline.open = false;
+			}
+		}
+		if (failure != null) throw failure;
+	}
+
+	/**
+	 * @return A new result holding the outcome of the task, or
+	 * <code>null</code> if the task is not complete yet.
+	 */
+	TaskResult<T> resultNow() {
+		if (this._state != DONE) return null;
+		final Exception exception = this._exception;
+		return exception != null ? TaskResult.failure(exception) : TaskResult.success(this.valueNow());
+	}
+
+	/**
+	 * @return The value of the task, only valid once the task completed
+	 * successfully.
+	 */
+	T valueNow() {
+		return this._value;
+	}
+
+	/**
+	 * @return The exception the task failed with, or <code>null</code> if
+	 * the task is not complete yet or completed successfully.
+	 */
+	final Exception exceptionNow() {
+		return this._state == DONE ? this._exception : null;
+	}
+
+	/**
+	 * <p>
+	 * Start the task if it is lazy, see {@link Task#lazy(TaskAction)}.
+	 * Any other task started when it was created, so for those this does
+	 * nothing.
+	 * </p>
+	 *
+	 * @return This task.
+	 */
+	public final Task<T> start() {
+		this.demand();
+		return this;
+	}
+
+	/**
+	 * Start the work of a lazy task, called whenever something starts to
+	 * depend on the task.
+	 */
+	void demand() {
+	}
+
+	/**
+	 * @return Whether the task completed, successfully or not.
+	 */
+	public boolean isDone() {
+		return this._state == DONE;
+	}
+
+	/**
+	 * Push the node onto the stack of the task.
+	 *
+	 * @return Whether the node was pushed, <code>false</code> if the task
+	 * already completed.
+	 */
+	private boolean push(Node node) {
+		Node head = this._stack;
+		while (head != CLOSED) {
+			node.next = head;
+			if (STACK.compareAndSet(this, head, node)) return true;
+			head = this._stack;
+		}
+		return false;
+	}
+
+	/**
+	 * <p>
+	 * Register a continuation that runs once the task completes. The
+	 * continuation runs on the thread that completes the task, or right
+	 * away on the current thread if the task is already complete, so it
+	 * should only hand work off and never block.
+	 * </p>
+	 *
+	 * @param continuation The continuation to run.
+	 */
+	void onComplete(Runnable continuation) {
+		if (!this.push(new Node(continuation))) {
+			continuation.run();
+			return;
+		}
+		this.demand();
+	}
+
+	/**
+	 * <p>
+	 * Cancel this task when the provided downstream task is cancelled or
+	 * runs past its deadline, and no other downstream task still depends
+	 * on this one.
+	 * </p>
+	 *
+	 * @param downstream The task that depends on this task.
+	 * @return Whether the downstream task was counted as a dependent,
+	 * <code>false</code> if this task was already complete.
 	 */
-	public static <T> Task<List<T>> all(List<Task<T>> tasks) {
-		return new Task<>(() -> tasks.stream().map(Task::await).toList());
+	final boolean linkCancellation(Task<?> downstream) {
+		if (this.isDone()) return false;
+		DEPENDENTS.getAndAdd(this, 1);
+		downstream.onComplete(() -> {
+			if (downstream.isAbandoned()) {
+				this.releaseDependent();
+			}
+		});
+		return true;
 	}
 
-	protected final AtomicReference<TaskResult<T>> _result = new AtomicReference<>(null);
-	protected final Thread _thread;
+	private void releaseDependent() {
+		if ((int) DEPENDENTS.getAndAdd(this, -1) == 1 && !this.isDone()) {
+			this.cancel();
+		}
+	}
 
-	public Task(TaskResult<T> result) {
-		this._result.set(result);
-		this._thread = null;
+	private void run(TaskResultAction<T> action, TaskStackTraces.CallerStack mainStack) {
+		this.track(() -> this.settle(attempt(action, mainStack)));
 	}
 
-	public Task(TaskAction<T> action) {
-		final StackTraceElement[] _mainStack = this.getStackTrace();
-		this._thread = new Thread(() -> {
-			synchronized (this) {
-				try {
-					this._result.set(TaskResult.success(action.run()));
-				} catch (Exception exception) {
-					{
-						StackTraceElement[] stack = exception.getStackTrace();
-						StackTraceElement[] newStack = new StackTraceElement[stack.length + _mainStack.length];
-						System.arraycopy(stack, 0, newStack, 0, stack.length);
-						System.arraycopy(_mainStack, 0, newStack, stack.length, _mainStack.length);
-						exception.setStackTrace(newStack);
-					}
-					this._result.set(TaskResult.failure(exception));
-				} finally {
-					notifyAll();
-				}
+	/**
+	 * <p>
+	 * Run a stage of this task from the continuation of the task it
+	 * depends on. When that task just completed as part of the stage a
+	 * worker of the same executor is running, this stage runs on that
+	 * worker right afterwards instead of being handed back to the executor,
+	 * so consecutive <i>map()</i> and <i>or()</i> stages are fused into a
+	 * single run. Only the first such stage is fused, the others still run
+	 * in parallel.
+	 * </p>
+	 *
+	 * @param runnable The stage to run.
+	 */
+	final void executeNext(Runnable runnable) {
+		final Trampoline trampoline = TRAMPOLINE.get();
+		if (trampoline.open && trampoline.next == null && trampoline.executor == this._executor) {
+			trampoline.next = runnable;
+			trampoline.nextTask = this;
+			return;
+		}
+		this.execute(runnable);
+	}
+
+	/**
+	 * Run the action with the provided input and complete the task with
+	 * its value, without wrapping it in a {@link TaskResult}.
+	 */
+	final <I> void apply(TaskActionMap<T, I> action, I input, TaskStackTraces.CallerStack mainStack) {
+		this.track(() -> {
+			final T value;
+			try {
+				value = Objects.requireNonNull(action.run(input), NULL_VALUE);
+			} catch (Exception exception) {
+				TaskStackTraces.stitch(exception, mainStack);
+				this.settleException(exception);
+				return;
 			}
+			this.settleValue(value);
 		});
-		this._thread.start();
 	}
 
-	public Task(TaskResultAction<T> action) {
-		final StackTraceElement[] _mainStack = this.getStackTrace();
-		this._thread = new Thread(() -> {
-			synchronized (this) {
-				try {
-					TaskResult<T> result = action.run();
-					if (result.didThrow) {
-						{
-							StackTraceElement[] stack = result.exception.getStackTrace();
-							StackTraceElement[] newStack = new StackTraceElement[stack.length + _mainStack.length];
-							System.arraycopy(stack, 0, newStack, 0, stack.length);
-							System.arraycopy(_mainStack, 0, newStack, stack.length, _mainStack.length);
-							result.exception.setStackTrace(newStack);
-						}
-					}
-					this._result.set(result);
-				} catch (Exception exception) {
-					{
-						StackTraceElement[] stack = exception.getStackTrace();
-						StackTraceElement[] newStack = new StackTraceElement[stack.length + _mainStack.length];
-						System.arraycopy(stack, 0, newStack, 0, stack.length);
-						System.arraycopy(_mainStack, 0, newStack, stack.length, _mainStack.length);
-						exception.setStackTrace(newStack);
-					}
-					this._result.set(TaskResult.failure(exception));
-				} finally {
-					notifyAll();
+	/**
+	 * <p>
+	 * Run the body on the current worker unless the task is already
+	 * complete, and remember the worker so {@link #cancel()} can interrupt
+	 * it. An interrupt meant for this task never leaks into the next task
+	 * that runs on the same worker.
+	 * </p>
+	 * <p>
+	 * Afterwards the worker keeps running the stages fused onto it through
+	 * {@link #executeNext(Runnable)}, one after another, so a chain
+	 * of stages runs on a single worker without growing the stack.
+	 * </p>
+	 *
+	 * @param body The body to run.
+	 */
+	final void track(Runnable body) {
+		final Trampoline trampoline = TRAMPOLINE.get();
+		if (trampoline.active) {
+			this.runTracked(body, trampoline);
+			return;
+		}
+		trampoline.active = true;
+		trampoline.executor = this._executor;
+		trampoline.current = this;
+		try {
+			this.runTracked(body, trampoline);
+			while (trampoline.next != null) {
+				final Runnable next = trampoline.next;
+				trampoline.current = trampoline.nextTask;
+				trampoline.next = null;
+				trampoline.nextTask = null;
+				next.run();
+			}
+		} finally {
+			final Runnable next = trampoline.next;
+			final Task<?> nextTask = trampoline.nextTask;
+			trampoline.active = false;
+			trampoline.executor = null;
+			trampoline.current = null;
+			trampoline.next = null;
+			trampoline.nextTask = null;
+			if (next != null) {
+				nextTask.execute(next);
+			}
+		}
+	}
+
+	private void runTracked(Runnable body, Trampoline trampoline) {
+		if (this.isDone()) return;
+		this._runner = Thread.currentThread();
+		try {
+			if (!this.isDone()) {
+				// Only a sample of the actions is timed, which is plenty for
+				// the average and keeps the clock off the common path.
+				if (++trampoline.actions % TaskWaitStrategy.SAMPLE_INTERVAL == 0 && TaskWaitStrategy.isAdaptive()) {
+					long start = System.nanoTime();
+					body.run();
+					TaskWaitStrategy.record(System.nanoTime() - start);
+				} else {
+					body.run();
 				}
 			}
-		});
-		this._thread.start();
+		} finally {
+			this._runner = null;
+			if (this._interruptState != NOT_INTERRUPTED) {
+				while (this._interruptState == INTERRUPTING) {
+					Thread.onSpinWait();
+				}
+				Thread.interrupted();
+			}
+		}
 	}
 
-	private StackTraceElement[] getStackTrace() {
-		final StackTraceElement[] _mainStack;
-		{
-			StackTraceElement[] tmp = Thread.currentThread().getStackTrace();
-			_mainStack = Arrays.copyOfRange(tmp, 3, tmp.length);
+	private static <T> TaskResult<T> attempt(TaskResultAction<T> action, TaskStackTraces.CallerStack mainStack) {
+		try {
+			TaskResult<T> result = action.run();
+			if (result.didThrow) {
+				TaskStackTraces.stitch(result.exception, mainStack);
+			}
+			return result;
+		} catch (Exception exception) {
+			TaskStackTraces.stitch(exception, mainStack);
+			return TaskResult.failure(exception);
 		}
-		return _mainStack;
 	}
 
 	/**
@@ -152,6 +1427,10 @@ public class Task<T> {
 	 * Wait for the task complete. If the task throws any exceptions the
 	 * exception will be re-thrown in a <code>RuntimeException</code>.
 	 * </p>
+	 * <p>
+	 * The waiting thread briefly spins before it parks, see
+	 * {@link TaskWaitStrategy}.
+	 * </p>
 	 *
 	 * <pre>{@code
 	 *   Integer result = new Task<Integer>(() -> {
@@ -165,17 +1444,200 @@ public class Task<T> {
 	 * @return The completed value.
 	 */
 	public T await() {
-		final TaskResult<T> result = this.waitForResult();
-		if (result.didThrow) {
-			throw new RuntimeException(result.exception);
+		this.waitUntilDone();
+		final Exception exception = this.exceptionNow();
+		if (exception != null) {
+			throw new RuntimeException(exception);
+		}
+		return this.valueNow();
+	}
+
+	/**
+	 * <p>
+	 * Cancel the task. A task that is not complete yet fails with a
+	 * {@link CancellationException}, and the worker running its action, if
+	 * any, is interrupted so blocking actions can give the worker back
+	 * early.
+	 * </p>
+	 * <p>
+	 * Cancellation travels through the chain in both directions. Tasks
+	 * created from this one with {@link #map(TaskActionMap)},
+	 * {@link #and(TaskActionAnd)} or {@link #or(TaskActionOr)} fail with
+	 * the same {@link CancellationException}, which <i>or()</i> does not
+	 * recover from. Tasks this one is waiting on are cancelled too, unless
+	 * another task still depends on them.
+	 * </p>
+	 *
+	 * <pre>{@code
+	 *   Task<Integer> task = new Task<>(() -> {
+	 *     Thread.sleep(10_000);
+	 *     return 123;
+	 *   });
+	 *   task.cancel();
+	 *
+	 *   Assertions.assertTrue(task.isCancelled());
+	 * }</pre>
+	 *
+	 * @return Whether this call cancelled the task, <code>false</code> if
+	 * it was already complete.
+	 */
+	public boolean cancel() {
+		return this.abandon(new CancellationException("The task was cancelled!"));
+	}
+
+	/**
+	 * Fail the task with the provided exception and interrupt the worker
+	 * running its action, if any.
+	 */
+	private boolean abandon(Exception exception) {
+		if (!this.settleException(exception)) {
+			return false;
+		}
+		this._interruptState = INTERRUPTING;
+		try {
+			Thread runner = this._runner;
+			if (runner != null) {
+				runner.interrupt();
+			}
+		} finally {
+			this._interruptState = INTERRUPTED;
+		}
+		return true;
+	}
+
+	/**
+	 * @return Whether the task completed by being cancelled.
+	 */
+	public boolean isCancelled() {
+		return this.exceptionNow() instanceof CancellationException;
+	}
+
+	private boolean isAbandoned() {
+		Exception exception = this.exceptionNow();
+		return exception instanceof CancellationException || exception instanceof TimeoutException;
+	}
+
+	/**
+	 * <p>
+	 * Wait at most the provided duration for the task to complete. If the
+	 * task does not complete in time, a <code>RuntimeException</code>
+	 * caused by a {@link TimeoutException} is thrown, while the task itself
+	 * keeps running. Unlike {@link #await()}, interrupting the waiting
+	 * thread stops the wait with a <code>RuntimeException</code> caused by
+	 * an {@link InterruptedException}.
+	 * </p>
+	 *
+	 * <pre>{@code
+	 *   Integer result = new Task<>(() -> 123).await(Duration.ofSeconds(1));
+	 * }</pre>
+	 *
+	 * @param timeout The maximum time to wait.
+	 * @return The completed value.
+	 */
+	public T await(Duration timeout) {
+		return this.awaitDeadline(System.nanoTime() + TimeUnit.NANOSECONDS.convert(timeout));
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link #await(Duration)}, but waits until the provided
+	 * instant.
+	 * </p>
+	 *
+	 * @param deadline The instant to stop waiting at.
+	 * @return The completed value.
+	 */
+	public T awaitUntil(Instant deadline) {
+		return this.await(Duration.between(Instant.now(), deadline));
+	}
+
+	private T awaitDeadline(long deadline) {
+		try {
+			if (!this.waitUntilDone(deadline)) {
+				throw new RuntimeException(new TimeoutException("The task did not complete in time!"));
+			}
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(exception);
+		}
+		final Exception exception = this.exceptionNow();
+		if (exception != null) {
+			throw new RuntimeException(exception);
+		}
+		return this.valueNow();
+	}
+
+	/**
+	 * <p>
+	 * Create a task that fails with a {@link TimeoutException} when this
+	 * task does not complete within the provided duration. The deadline
+	 * carries over to every task chained onto the returned one, so the
+	 * whole chain is bounded, and this task is cancelled once the deadline
+	 * passes unless another task still depends on it. The deadline ends at
+	 * the next {@link #or(TaskActionOr)}, so a fallback can still recover
+	 * from the timeout.
+	 * </p>
+	 *
+	 * <pre>{@code
+	 *   String email = new Task<>(() -> findUserSomehow())
+	 *     .timeout(Duration.ofMillis(200))
+	 *     .map(user -> user.getEmail())
+	 *     .or(ex -> "unknown@example.com")
+	 *     .await();
+	 * }</pre>
+	 *
+	 * @param timeout The maximum time the task may take.
+	 * @return The new task.
+	 */
+	public Task<T> timeout(Duration timeout) {
+		final Task<T> next = Task.pending(this._executor);
+		this.linkCancellation(next);
+		next.inheritDeadline(this);
+		next.applyDeadline(System.nanoTime() + TimeUnit.NANOSECONDS.convert(timeout));
+		this.onComplete(() -> next.settleFrom(this));
+		return next;
+	}
+
+	final void inheritDeadline(Task<?> upstream) {
+		TaskTimer.Timeout timeout = upstream._timeout;
+		if (timeout != null) {
+			this.applyDeadline(timeout.deadline());
+		}
+	}
+
+	/**
+	 * Fail the task with a {@link TimeoutException} at the provided
+	 * {@link System#nanoTime()}, unless it already has an earlier deadline.
+	 */
+	private void applyDeadline(long deadline) {
+		if (this.isDone()) return;
+		TaskTimer.Timeout current = this._timeout;
+		if (current != null && current.deadline() - deadline <= 0) return;
+		TaskTimer.Timeout timeout = TaskTimer.schedule(
+			() -> this.abandon(new TimeoutException("The task did not complete before its deadline!")),
+			deadline - System.nanoTime()
+		);
+		this._timeout = timeout;
+		if (current != null) {
+			current.cancel();
 		}
-		return result.value;
+		this.onComplete(timeout::cancel);
 	}
 
 	/**
 	 * <p>
 	 * Take the result and map it into a new awaitable task.
 	 * </p>
+	 * <p>
+	 * If this task is already complete the action runs right away on the
+	 * calling thread and the task it returns is handed back as is, unless
+	 * too many such actions are already nested on the calling thread.
+	 * </p>
+	 * <p>
+	 * Recursive chains, such as paging through results by returning the
+	 * next <i>and()</i> from the action, run in constant stack and without
+	 * holding a thread per step, however long they get.
+	 * </p>
 	 *
 	 * <pre>{@code
 	 *   Integer result = Task.complete(123)
@@ -183,6 +1645,12 @@ public class Task<T> {
 	 *     .await();
 	 *
 	 *   Assertions.asserEquals(246, result);
+	 *
+	 *   Task<Integer> countPages(int page, int count) {
+	 *     return fetchPageSomehow(page).and(result -> result.hasNext()
+	 *       ? countPages(page + 1, count + 1)
+	 *       : Task.complete(count + 1));
+	 *   }
 	 * }</pre>
 	 *
 	 * @param action The <i>and()</i> action.
@@ -190,11 +1658,59 @@ public class Task<T> {
 	 * @return The new task.
 	 */
 	public <V> Task<V> and(TaskActionAnd<V, T> action) {
-		return new Task<>(() -> {
-			TaskResult<T> result = this.waitForResult();
-			if (result.didThrow) return TaskResult.failure(result.exception);
-			return action.run(result.value).waitForResult();
+		if (!this.isDone()) return this.and(action, this._executor);
+		final Exception exception = this.exceptionNow();
+		if (exception != null) return Task.failed(exception, this._executor);
+		final Trampoline trampoline = TRAMPOLINE.get();
+		if (trampoline.inlineDepth >= MAX_INLINE_DEPTH) return this.and(action, this._executor);
+		trampoline.inlineDepth++;
+		try {
+			final Task<V> inner = action.run(this.valueNow());
+			return inner != null ? inner : Task.failed(new NullPointerException(NULL_TASK), this._executor);
+		} catch (Exception failure) {
+			return Task.failed(failure, this._executor);
+		} finally {
+			trampoline.inlineDepth--;
+		}
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link Task#and(TaskActionAnd)}, but always runs the action on
+	 * the provided executor, even when this task is already complete.
+	 * </p>
+	 *
+	 * @param action   The <i>and()</i> action.
+	 * @param executor The executor to run the action on.
+	 * @param <V>      The new task return type.
+	 * @return The new task.
+	 */
+	public <V> Task<V> and(TaskActionAnd<V, T> action, Executor executor) {
+		final Task<V> next = Task.pending(executor);
+		final TaskStackTraces.CallerStack _mainStack = TaskStackTraces.capture();
+		this.linkCancellation(next);
+		next.inheritDeadline(this);
+		this.onComplete(() -> {
+			final Exception exception = this.exceptionNow();
+			if (exception != null) {
+				next.settleException(exception);
+				return;
+			}
+			final T value = this.valueNow();
+			next.executeNext(() -> next.track(() -> {
+				final Task<V> inner;
+				try {
+					inner = Objects.requireNonNull(action.run(value), NULL_TASK);
+				} catch (Exception failure) {
+					TaskStackTraces.stitch(failure, _mainStack);
+					next.settleException(failure);
+					return;
+				}
+				inner.linkCancellation(next);
+				inner.onComplete(() -> next.settleFrom(inner));
+			}));
 		});
+		return next;
 	}
 
 	/**
@@ -209,6 +1725,13 @@ public class Task<T> {
 	 * ({@code task.map(previousValue -> newValue)} or by strictly
 	 * typing the new task type ({@code task.<Integer>map(previousValue -> newValue)}
 	 * </p>
+	 * <p>
+	 * The action runs on a worker of the executor, usually the same worker
+	 * that completed this task, so a chain of <i>map()</i> and <i>or()</i>
+	 * stages runs as a single unit of work. Cheap actions on a task that
+	 * may already be complete can use {@link #mapNow(TaskActionMap)}
+	 * instead.
+	 * </p>
 	 *
 	 * <pre>{@code
 	 *   Integer result = Task.complete(123)
@@ -223,11 +1746,67 @@ public class Task<T> {
 	 * @return The new task.
 	 */
 	public <V> Task<V> map(TaskActionMap<V, T> action) {
-		return new Task<>(() -> {
-			TaskResult<T> result = this.waitForResult();
-			if (result.didThrow) throw result.exception;
-			return action.run(result.value);
+		if (this.isDone()) {
+			final Exception exception = this.exceptionNow();
+			if (exception != null) return Task.failed(exception, this._executor);
+		}
+		return this.map(action, this._executor);
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link Task#map(TaskActionMap)}, but if this task is already
+	 * complete the action runs right away on the calling thread and an
+	 * already completed task is returned, without a trip through the
+	 * executor. Only use it for cheap actions that never block, such as
+	 * mapping a cached or constant value.
+	 * </p>
+	 *
+	 * <pre>{@code
+	 *   Task<String> name = cache.get(id).mapNow(User::getName);
+	 * }</pre>
+	 *
+	 * @param action The <i>map()</i> action.
+	 * @param <V>    The new task return type.
+	 * @return The new task.
+	 */
+	public <V> Task<V> mapNow(TaskActionMap<V, T> action) {
+		if (!this.isDone()) return this.map(action, this._executor);
+		final Exception exception = this.exceptionNow();
+		if (exception != null) return Task.failed(exception, this._executor);
+		try {
+			return Task.succeeded(Objects.requireNonNull(action.run(this.valueNow()), NULL_VALUE), this._executor);
+		} catch (Exception failure) {
+			return Task.failed(failure, this._executor);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link Task#map(TaskActionMap)}, but always runs the action on
+	 * the provided executor, even when this task is already complete.
+	 * </p>
+	 *
+	 * @param action   The <i>map()</i> action.
+	 * @param executor The executor to run the action on.
+	 * @param <V>      The new task return type.
+	 * @return The new task.
+	 */
+	public <V> Task<V> map(TaskActionMap<V, T> action, Executor executor) {
+		final Task<V> next = Task.pending(executor);
+		final TaskStackTraces.CallerStack _mainStack = TaskStackTraces.capture();
+		this.linkCancellation(next);
+		next.inheritDeadline(this);
+		this.onComplete(() -> {
+			final Exception exception = this.exceptionNow();
+			if (exception != null) {
+				next.settleException(exception);
+				return;
+			}
+			final T value = this.valueNow();
+			next.executeNext(() -> next.apply(action, value, _mainStack));
 		});
+		return next;
 	}
 
 	/**
@@ -243,6 +1822,11 @@ public class Task<T> {
 	 * calls. You can, however, use {@link Task#map(TaskActionMap)} to mutate the
 	 * value and type of the task.
 	 * </p>
+	 * <p>
+	 * A task that is already complete and did not fail is returned as is.
+	 * Cheap actions on a task that may already have failed can use
+	 * {@link #orNow(TaskActionOr)} instead.
+	 * </p>
 	 *
 	 * <pre>{@code
 	 *   Integer result = Task.complete(123)
@@ -264,24 +1848,263 @@ public class Task<T> {
 	 * @return The new task.
 	 */
 	public Task<T> or(TaskActionOr<T> action) {
-		return new Task<>(() -> {
-			TaskResult<T> result = this.waitForResult();
-			if (!result.didThrow) return result.value;
-			return action.run(result.exception);
+		if (this.isDone()) {
+			final Exception exception = this.exceptionNow();
+			if (exception == null || exception instanceof CancellationException) return this;
+		}
+		return this.or(action, this._executor);
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link Task#or(TaskActionOr)}, but if this task already
+	 * failed the action runs right away on the calling thread and an
+	 * already completed task is returned. Only use it for cheap actions
+	 * that never block, such as falling back to a constant value.
+	 * </p>
+	 *
+	 * <pre>{@code
+	 *   Task<Integer> count = cache.get(key).orNow(exception -> 0);
+	 * }</pre>
+	 *
+	 * @param action The <i>or()</i> action.
+	 * @return The new task.
+	 */
+	public Task<T> orNow(TaskActionOr<T> action) {
+		if (!this.isDone()) return this.or(action, this._executor);
+		final Exception exception = this.exceptionNow();
+		if (exception == null || exception instanceof CancellationException) return this;
+		try {
+			return Task.succeeded(Objects.requireNonNull(action.run(exception), NULL_VALUE), this._executor);
+		} catch (Exception failure) {
+			return Task.failed(failure, this._executor);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Same as {@link Task#or(TaskActionOr)}, but always runs the action on
+	 * the provided executor, even when this task is already complete.
+	 * </p>
+	 *
+	 * @param action   The <i>or()</i> action.
+	 * @param executor The executor to run the action on.
+	 * @return The new task.
+	 */
+	public Task<T> or(TaskActionOr<T> action, Executor executor) {
+		final Task<T> next = Task.pending(executor);
+		final TaskStackTraces.CallerStack _mainStack = TaskStackTraces.capture();
+		this.linkCancellation(next);
+		this.onComplete(() -> {
+			final Exception exception = this.exceptionNow();
+			if (exception == null || exception instanceof CancellationException) {
+				next.settleFrom(this);
+				return;
+			}
+			next.executeNext(() -> next.apply(action::run, exception, _mainStack));
 		});
+		return next;
 	}
 
-	protected synchronized TaskResult<T> waitForResult() {
-		TaskResult<T> result = this._result.get();
-		while (result == null) {
-			try {
-				wait();
-			} catch (InterruptedException _e) {
+	/**
+	 * <p>
+	 * Take the value and run the action with it, and run the action again
+	 * when it fails, as described by the provided policy. A task only runs
+	 * its action once, so it is the step after this task that is retried,
+	 * see {@link Task#retrying(TaskAction, TaskRetryPolicy)}. If this task
+	 * fails, the action is never run.
+	 * </p>
+	 *
+	 * <pre>{@code
+	 *   Task<User> user = findUserId()
+	 *     .retry(id -> fetchUser(id), TaskRetryPolicy.attempts(3));
+	 * }</pre>
+	 *
+	 * @param action The action to retry.
+	 * @param policy How often and how fast to retry the action.
+	 * @param <V>    The new task return type.
+	 * @return The new task.
+	 */
+	public <V> Task<V> retry(TaskActionMap<V, T> action, TaskRetryPolicy policy) {
+		Objects.requireNonNull(policy, "Could not retry the action: the policy cannot be null!");
+		final Executor executor = this._executor;
+		return this.and(value -> Task.retrying(() -> action.run(value), policy, executor));
+	}
+
+	/**
+	 * <p>
+	 * Create a {@link CompletableFuture} that completes with this task,
+	 * without a thread waiting for it, to hand the task to APIs that take
+	 * a future. Cancelling the future cancels this task unless another
+	 * task still depends on it.
+	 * </p>
+	 *
+	 * <pre>{@code
+	 *   CompletableFuture<User> future = new Task<>(() -> findUserSomehow())
+	 *     .toCompletableFuture();
+	 * }</pre>
+	 *
+	 * @return A future that completes with the outcome of this task.
+	 */
+	public CompletableFuture<T> toCompletableFuture() {
+		final CompletableFuture<T> future = new CompletableFuture<>();
+		if (!this.isDone()) {
+			DEPENDENTS.getAndAdd(this, 1);
+			future.whenComplete((value, throwable) -> {
+				if (future.isCancelled()) {
+					this.releaseDependent();
+				}
+			});
+		}
+		this.onComplete(() -> Task.runForeign(() -> {
+			final Exception exception = this.exceptionNow();
+			if (exception != null) {
+				future.completeExceptionally(exception);
+			} else {
+				future.complete(this.valueNow());
+			}
+		}));
+		return future;
+	}
+
+	/**
+	 * @param deadline The {@link System#nanoTime()} to stop waiting at.
+	 * @return The result, or <code>null</code> if the deadline passed first.
+	 * @throws InterruptedException If the waiting thread is interrupted.
+	 */
+	protected TaskResult<T> waitForResult(long deadline) throws InterruptedException {
+		return this.waitUntilDone(deadline) ? this.resultNow() : null;
+	}
+
+	/**
+	 * Same as {@link #waitForResult(long)}, without reading the result.
+	 *
+	 * @return Whether the task completed before the deadline.
+	 */
+	final boolean waitUntilDone(long deadline) throws InterruptedException {
+		if (this.isDone()) return true;
+		this.demand();
+		if (TaskWaitStrategy.spin(this)) return true;
+		final Node waiter = new Node(Thread.currentThread());
+		if (this.push(waiter)) {
+			while (!this.isDone()) {
+				long remaining = deadline - System.nanoTime();
+				if (remaining <= 0) {
+					this.removeWaiter(waiter);
+					return false;
+				}
+				LockSupport.parkNanos(this, remaining);
+				if (Thread.interrupted()) {
+					this.removeWaiter(waiter);
+					throw new InterruptedException();
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Take a waiter that gave up off the stack, so polling a task that
+	 * takes long does not pile up waiters until it completes. The waiter is
+	 * cleared first, so {@link #release()} skips it if it still finds it,
+	 * and every other cleared node met on the way is unlinked as well.
+	 */
+	private void removeWaiter(Node waiter) {
+		waiter.item = null;
+		retry:
+		while (true) {
+			Node previous = null;
+			Node node = this._stack;
+			if (node == CLOSED) return;
+			while (node != null) {
+				final Node next = node.next;
+				if (node.item != null) {
+					previous = node;
+				} else if (previous != null) {
+					previous.next = next;
+					if (previous.item == null) continue retry;
+				} else if (!STACK.compareAndSet(this, node, next)) {
+					continue retry;
+				}
+				node = next;
+			}
+			return;
+		}
+	}
+
+	protected TaskResult<T> waitForResult() {
+		this.waitUntilDone();
+		return this.resultNow();
+	}
+
+	/**
+	 * Wait for the task to complete without reading its result, restoring
+	 * the interrupt flag of the waiting thread afterwards.
+	 */
+	final void waitUntilDone() {
+		if (this.isDone()) return;
+		this.demand();
+		if (TaskWaitStrategy.spin(this)) return;
+		final Node waiter = new Node(Thread.currentThread());
+		if (this.push(waiter)) {
+			boolean interrupted = false;
+			while (!this.isDone()) {
+				LockSupport.park(this);
+				if (Thread.interrupted()) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
 				Thread.currentThread().interrupt();
 			}
-			result = this._result.get();
 		}
-		return result;
+	}
+
+	/**
+	 * Per-thread state that keeps chains of tasks from growing the stack:
+	 * the stage fused onto the current worker, see
+	 * {@link #executeNext(Runnable)}, the continuations queued while
+	 * another task completes, see {@link #release()}, and the depth of
+	 * nested inline <i>and()</i> actions.
+	 */
+	private static final class Trampoline {
+		boolean active;
+		Executor executor;
+		/**
+		 * The task whose stage the worker is running.
+		 */
+		Task<?> current;
+		/**
+		 * Whether the continuations of {@link #current} are running, the
+		 * only time a stage may be fused.
+		 */
+		boolean open;
+		Runnable next;
+		Task<?> nextTask;
+		boolean releasing;
+		int actions;
+		Node deferred;
+		Node deferredLast;
+		int inlineDepth;
+	}
+
+	/**
+	 * An entry on the stack of a pending task, either a parked
+	 * {@link Thread} or a continuation {@link Runnable}. The item is
+	 * cleared once a waiter gives up, see {@link #removeWaiter(Node)}.
+	 */
+	private static final class Node {
+		Object item;
+		Node next;
+		/**
+		 * The node to run after this one, only touched by
+		 * {@link #release()} once the stack is closed.
+		 */
+		Node after;
+
+		Node(Object item) {
+			this.item = item;
+		}
 	}
 
 }
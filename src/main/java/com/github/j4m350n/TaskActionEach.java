@@ -0,0 +1,5 @@
+package com.github.j4m350n;
+
+public interface TaskActionEach<T> {
+	void run(T value) throws Exception;
+}
@@ -0,0 +1,373 @@
+package com.github.j4m350n;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>
+ * Coalesces concurrent loads of the same key: while a load for a key is in
+ * flight, every caller asking for that key shares it instead of starting
+ * its own. Without a {@link TaskCachePolicy} the key is forgotten once the
+ * load completes, so the next caller starts a fresh load. With a policy
+ * the cache keeps the loaded values as completed tasks, bounded in size
+ * and time as the policy describes.
+ * </p>
+ * <p>
+ * Every caller of a load in flight gets its own task that completes with
+ * the shared load. Cancelling it only cancels the load once every other
+ * caller waiting for the same key gave up as well. A load that fails is
+ * dropped right away, so the next caller tries again.
+ * </p>
+ * <p>
+ * Reads only take the eviction lock when it is free, so under heavy
+ * contention the least recently used order is approximate. Expired values
+ * are dropped by the shared timer, or by the first read that finds them.
+ * </p>
+ *
+ * <pre>{@code
+ *   TaskCache<Long, User> users = new TaskCache<>(
+ *     id -> loadUserSomehow(id),
+ *     TaskCachePolicy.maximumSize(10_000).withExpireAfterWrite(Duration.ofMinutes(5))
+ *   );
+ *
+ *   // Both tasks share a single call to loadUserSomehow(1).
+ *   Task<User> first = users.get(1L);
+ *   Task<User> second = users.get(1L);
+ * }</pre>
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the loaded values.
+ */
+public final class TaskCache<K, V> {
+
+	private static final TaskCache<Object, Object> FLIGHTS = new TaskCache<>();
+
+	private final ConcurrentHashMap<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+	private final TaskActionMap<V, K> loader;
+	private final TaskCachePolicy policy;
+	private final Executor executor;
+	/**
+	 * Guards the least recently used order and the expiry timers. The
+	 * list runs from the least to the most recently used entry.
+	 */
+	private final ReentrantLock lock = new ReentrantLock();
+	private Entry<K, V> head;
+	private Entry<K, V> tail;
+	private long size;
+
+	/**
+	 * @param loader The action that loads the value of a key.
+	 */
+	public TaskCache(TaskActionMap<V, K> loader) {
+		this(loader, null, TaskScheduler.getDefaultExecutor());
+	}
+
+	/**
+	 * @param loader   The action that loads the value of a key.
+	 * @param executor The executor to run the loader on.
+	 */
+	public TaskCache(TaskActionMap<V, K> loader, Executor executor) {
+		this(loader, null, executor);
+	}
+
+	/**
+	 * @param loader The action that loads the value of a key.
+	 * @param policy How many loaded values to keep and for how long.
+	 */
+	public TaskCache(TaskActionMap<V, K> loader, TaskCachePolicy policy) {
+		this(loader, Objects.requireNonNull(policy, "Could not create the cache: the policy cannot be null!"), TaskScheduler.getDefaultExecutor());
+	}
+
+	/**
+	 * @param loader   The action that loads the value of a key.
+	 * @param policy   How many loaded values to keep and for how long, or
+	 *                 <code>null</code> to keep none.
+	 * @param executor The executor to run the loader on.
+	 */
+	public TaskCache(TaskActionMap<V, K> loader, TaskCachePolicy policy, Executor executor) {
+		this.loader = Objects.requireNonNull(loader, "Could not create the cache: the loader cannot be null!");
+		this.policy = policy;
+		this.executor = Objects.requireNonNull(executor, "Could not create the cache: the executor cannot be null!");
+	}
+
+	private TaskCache() {
+		this.loader = null;
+		this.policy = null;
+		this.executor = null;
+	}
+
+	/**
+	 * Get the value of the key if the cache holds it, and load it
+	 * otherwise, unless a load for it is in flight already.
+	 *
+	 * @param key The key to get.
+	 * @return A task that completes with the value of the key.
+	 */
+	public Task<V> get(K key) {
+		Objects.requireNonNull(key, "Could not load the key: the key cannot be null!");
+		return this.get(key, this.loader, this.executor);
+	}
+
+	/**
+	 * Drop the key, so the next caller starts a fresh load. Callers already
+	 * waiting for a load of the key keep waiting.
+	 *
+	 * @param key The key to drop.
+	 */
+	public void invalidate(K key) {
+		final Entry<K, V> entry = this.entries.get(key);
+		if (entry != null) {
+			this.remove(entry);
+		}
+	}
+
+	/**
+	 * @return The amount of keys with a value or a load in flight.
+	 */
+	public int size() {
+		return this.entries.size();
+	}
+
+	@SuppressWarnings("unchecked")
+	static <T> Task<T> singleFlight(Object key, TaskAction<T> action, Executor executor) {
+		return ((TaskCache<Object, T>) (TaskCache<?, ?>) FLIGHTS).get(key, ignored -> action.run(), executor);
+	}
+
+	private Task<V> get(K key, TaskActionMap<V, K> loader, Executor executor) {
+		Entry<K, V> entry = this.entries.get(key);
+		while (true) {
+			if (entry != null) {
+				final Task<V> task = entry.task;
+				if (!task.isDone()) return view(task, executor);
+				if (task.exceptionNow() == null) {
+					if (this.policy == null) return task;
+					final long now = System.nanoTime();
+					if (!entry.isExpired(this.policy, now)) {
+						this.read(entry, now);
+						return task;
+					}
+				}
+				this.remove(entry);
+			}
+			final Entry<K, V> created = new Entry<>(key, Task.pending(executor));
+			entry = this.entries.putIfAbsent(key, created);
+			if (entry == null) {
+				this.load(created, loader);
+				return view(created.task, executor);
+			}
+		}
+	}
+
+	private void load(Entry<K, V> entry, TaskActionMap<V, K> loader) {
+		final Task<V> task = entry.task;
+		final TaskStackTraces.CallerStack mainStack = TaskStackTraces.capture();
+		if (this.policy != null) {
+			this.link(entry);
+		}
+		task.onComplete(() -> {
+			if (this.policy == null || task.exceptionNow() != null) {
+				this.remove(entry);
+				return;
+			}
+			entry.written(System.nanoTime());
+			this.scheduleExpiry(entry);
+		});
+		task.execute(() -> task.apply(loader, entry.key, mainStack));
+	}
+
+	/**
+	 * Mark the entry as read and start a refresh in the background when
+	 * its value is getting old. The old value is served until the refresh
+	 * completes, and kept if the refresh fails.
+	 */
+	private void read(Entry<K, V> entry, long now) {
+		if (this.policy.expireAfterAccess() != 0) {
+			entry.accessTime = now;
+		}
+		if (this.policy.maximumSize() != Long.MAX_VALUE && this.lock.tryLock()) {
+			try {
+				if (entry.linked && entry != this.tail) {
+					this.unlink(entry);
+					this.append(entry);
+				}
+			} finally {
+				this.lock.unlock();
+			}
+		}
+		final long refresh = this.policy.refreshAfterWrite();
+		if (refresh == 0 || now - entry.writeTime < refresh || !Entry.REFRESHING.compareAndSet(entry, false, true)) {
+			return;
+		}
+		final Task<V> reload = Task.pending(this.executor);
+		final TaskStackTraces.CallerStack mainStack = TaskStackTraces.capture();
+		reload.onComplete(() -> {
+			if (reload.exceptionNow() == null && !entry.removed) {
+				entry.task = reload;
+				entry.written(System.nanoTime());
+			}
+			entry.refreshing = false;
+		});
+		reload.execute(() -> reload.apply(this.loader, entry.key, mainStack));
+	}
+
+	private void link(Entry<K, V> entry) {
+		this.lock.lock();
+		try {
+			if (entry.removed) return;
+			this.append(entry);
+			entry.linked = true;
+			this.size++;
+			while (this.size > this.policy.maximumSize()) {
+				this.removeLocked(this.head);
+			}
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	private void remove(Entry<K, V> entry) {
+		if (this.policy == null) {
+			this.entries.remove(entry.key, entry);
+			return;
+		}
+		this.lock.lock();
+		try {
+			if (!entry.removed) {
+				this.removeLocked(entry);
+			}
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	private void removeLocked(Entry<K, V> entry) {
+		this.entries.remove(entry.key, entry);
+		entry.removed = true;
+		if (entry.linked) {
+			this.unlink(entry);
+			entry.linked = false;
+			this.size--;
+		}
+		if (entry.expiry != null) {
+			entry.expiry.cancel();
+			entry.expiry = null;
+		}
+	}
+
+	/**
+	 * Drop the entry from the shared timer once it expires. When it was
+	 * read or refreshed in the meantime, the timer is set again for the
+	 * new expiry instead.
+	 */
+	private void scheduleExpiry(Entry<K, V> entry) {
+		final long expiresAt = entry.expiresAt(this.policy);
+		if (expiresAt == Long.MAX_VALUE) return;
+		this.lock.lock();
+		try {
+			if (entry.removed) return;
+			entry.expiry = TaskTimer.schedule(() -> {
+				if (entry.isExpired(this.policy, System.nanoTime())) {
+					this.remove(entry);
+				} else {
+					this.scheduleExpiry(entry);
+				}
+			}, expiresAt - System.nanoTime());
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	private void append(Entry<K, V> entry) {
+		entry.previous = this.tail;
+		entry.next = null;
+		if (this.tail == null) {
+			this.head = entry;
+		} else {
+			this.tail.next = entry;
+		}
+		this.tail = entry;
+	}
+
+	private void unlink(Entry<K, V> entry) {
+		if (entry.previous == null) {
+			this.head = entry.next;
+		} else {
+			entry.previous.next = entry.next;
+		}
+		if (entry.next == null) {
+			this.tail = entry.previous;
+		} else {
+			entry.next.previous = entry.previous;
+		}
+		entry.previous = null;
+		entry.next = null;
+	}
+
+	private static <V> Task<V> view(Task<V> task, Executor executor) {
+		final Task<V> next = Task.pending(executor);
+		task.linkCancellation(next);
+		task.onComplete(() -> next.settleFrom(task));
+		return next;
+	}
+
+	private static final class Entry<K, V> {
+		private static final VarHandle REFRESHING;
+
+		static {
+			try {
+				REFRESHING = MethodHandles.lookup().findVarHandle(Entry.class, "refreshing", boolean.class);
+			} catch (ReflectiveOperationException exception) {
+				throw new ExceptionInInitializerError(exception);
+			}
+		}
+
+		final K key;
+		volatile Task<V> task;
+		volatile long writeTime;
+		volatile long accessTime;
+		volatile boolean refreshing;
+		/**
+		 * Guarded by the lock of the cache.
+		 */
+		volatile boolean removed;
+		boolean linked;
+		Entry<K, V> previous;
+		Entry<K, V> next;
+		TaskTimer.Timeout expiry;
+
+		Entry(K key, Task<V> task) {
+			this.key = key;
+			this.task = task;
+			this.written(System.nanoTime());
+		}
+
+		void written(long now) {
+			this.writeTime = now;
+			this.accessTime = now;
+		}
+
+		long expiresAt(TaskCachePolicy policy) {
+			long expiresAt = Long.MAX_VALUE;
+			if (policy.expireAfterWrite() != 0) {
+				expiresAt = this.writeTime + policy.expireAfterWrite();
+			}
+			if (policy.expireAfterAccess() != 0) {
+				final long accessExpiresAt = this.accessTime + policy.expireAfterAccess();
+				if (expiresAt == Long.MAX_VALUE || accessExpiresAt - expiresAt < 0) {
+					expiresAt = accessExpiresAt;
+				}
+			}
+			return expiresAt;
+		}
+
+		boolean isExpired(TaskCachePolicy policy, long now) {
+			final long expiresAt = this.expiresAt(policy);
+			return expiresAt != Long.MAX_VALUE && now - expiresAt >= 0;
+		}
+	}
+
+}
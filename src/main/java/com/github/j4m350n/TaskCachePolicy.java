@@ -0,0 +1,134 @@
+package com.github.j4m350n;
+
+import java.time.Duration;
+
+/**
+ * <p>
+ * Describes how long a {@link TaskCache} keeps the values it loaded: at
+ * most how many, for how long after they were loaded or last read, and
+ * when to reload them in the background. Without a policy a cache only
+ * coalesces the loads in flight and keeps nothing.
+ * </p>
+ * <p>
+ * Once the cache holds more than the maximum size, the least recently
+ * used values are evicted first. A value that failed to load is never
+ * kept, so errors are not cached.
+ * </p>
+ * <p>
+ * Policies are immutable, every <i>with</i> method returns a new policy.
+ * </p>
+ *
+ * <pre>{@code
+ *   TaskCachePolicy policy = TaskCachePolicy.maximumSize(10_000)
+ *     .withExpireAfterWrite(Duration.ofMinutes(10))
+ *     .withRefreshAfterWrite(Duration.ofMinutes(8));
+ * }</pre>
+ */
+public final class TaskCachePolicy {
+
+	private final long maximumSize;
+	private final long expireAfterWrite;
+	private final long expireAfterAccess;
+	private final long refreshAfterWrite;
+
+	private TaskCachePolicy(long maximumSize, long expireAfterWrite, long expireAfterAccess, long refreshAfterWrite) {
+		this.maximumSize = maximumSize;
+		this.expireAfterWrite = expireAfterWrite;
+		this.expireAfterAccess = expireAfterAccess;
+		this.refreshAfterWrite = refreshAfterWrite;
+	}
+
+	/**
+	 * @return A policy that keeps every value until it is invalidated.
+	 */
+	public static TaskCachePolicy unbounded() {
+		return new TaskCachePolicy(Long.MAX_VALUE, 0, 0, 0);
+	}
+
+	/**
+	 * @param maximumSize The maximum amount of values to keep.
+	 * @return A policy that keeps at most the provided amount of values.
+	 */
+	public static TaskCachePolicy maximumSize(long maximumSize) {
+		if (maximumSize < 1) {
+			throw new IllegalArgumentException("Could not create the cache policy: the maximum size must be at least 1!");
+		}
+		return new TaskCachePolicy(maximumSize, 0, 0, 0);
+	}
+
+	/**
+	 * @param expireAfterWrite How long to keep a value after it was loaded.
+	 * @return The new policy.
+	 */
+	public TaskCachePolicy withExpireAfterWrite(Duration expireAfterWrite) {
+		return new TaskCachePolicy(
+			this.maximumSize,
+			checkPositive(expireAfterWrite),
+			this.expireAfterAccess,
+			this.refreshAfterWrite
+		);
+	}
+
+	/**
+	 * @param expireAfterAccess How long to keep a value after it was last
+	 *                          read.
+	 * @return The new policy.
+	 */
+	public TaskCachePolicy withExpireAfterAccess(Duration expireAfterAccess) {
+		return new TaskCachePolicy(
+			this.maximumSize,
+			this.expireAfterWrite,
+			checkPositive(expireAfterAccess),
+			this.refreshAfterWrite
+		);
+	}
+
+	/**
+	 * <p>
+	 * Reload a value in the background when it is read this long after it
+	 * was loaded, and keep serving the old value until the reload
+	 * completes. Values that are not read are not reloaded, they expire
+	 * instead. A failed reload keeps the old value.
+	 * </p>
+	 *
+	 * @param refreshAfterWrite How long after loading a value to reload
+	 *                          it, usually a bit less than the
+	 *                          expire-after-write duration.
+	 * @return The new policy.
+	 */
+	public TaskCachePolicy withRefreshAfterWrite(Duration refreshAfterWrite) {
+		return new TaskCachePolicy(
+			this.maximumSize,
+			this.expireAfterWrite,
+			this.expireAfterAccess,
+			checkPositive(refreshAfterWrite)
+		);
+	}
+
+	long maximumSize() {
+		return this.maximumSize;
+	}
+
+	/**
+	 * @return The durations in nanoseconds, or <code>0</code> when unset.
+	 */
+	long expireAfterWrite() {
+		return this.expireAfterWrite;
+	}
+
+	long expireAfterAccess() {
+		return this.expireAfterAccess;
+	}
+
+	long refreshAfterWrite() {
+		return this.refreshAfterWrite;
+	}
+
+	private static long checkPositive(Duration duration) {
+		if (duration.isNegative() || duration.isZero()) {
+			throw new IllegalArgumentException("Could not set the cache duration: the duration must be positive!");
+		}
+		return duration.toNanos();
+	}
+
+}
@@ -0,0 +1,62 @@
+package com.github.j4m350n;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * <p>
+ * Handed to a {@link TaskCancellableAction} so the action can find out that
+ * its task was cancelled, either directly through {@link Task#cancel()} or
+ * because every task depending on it was cancelled.
+ * </p>
+ *
+ * <pre>{@code
+ *   new Task<>(token -> {
+ *     Socket socket = openSocket();
+ *     token.onCancel(socket::close);
+ *     return readResponse(socket);
+ *   });
+ * }</pre>
+ */
+public final class TaskCancellationToken {
+
+	private final Task<?> task;
+
+	TaskCancellationToken(Task<?> task) {
+		this.task = task;
+	}
+
+	/**
+	 * @return Whether the task was cancelled.
+	 */
+	public boolean isCancelled() {
+		return this.task.isCancelled();
+	}
+
+	/**
+	 * Throw a {@link CancellationException} if the task was cancelled.
+	 */
+	public void throwIfCancelled() {
+		if (this.task.isCancelled()) {
+			throw new CancellationException("The task was cancelled!");
+		}
+	}
+
+	/**
+	 * <p>
+	 * Run the listener once the task is cancelled, which is useful to
+	 * release resources that do not respond to thread interrupts. The
+	 * listener runs right away if the task is already cancelled, and never
+	 * if the task completes any other way.
+	 * </p>
+	 *
+	 * @param listener The listener to run.
+	 */
+	public void onCancel(Runnable listener) {
+		this.task.onComplete(() -> {
+			if (this.task.isCancelled()) {
+				Task.runForeign(listener);
+			}
+		});
+	}
+
+}
@@ -0,0 +1,68 @@
+package com.github.j4m350n;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>
+ * A task that only starts its work once something depends on it, see
+ * {@link Task#lazy(TaskAction)} and {@link Task#defer(TaskAction)}. The
+ * work is taken out of the task when it starts, so it runs at most once
+ * no matter how many threads ask for it at the same time.
+ * </p>
+ */
+final class TaskLazy<T> extends Task<T> {
+
+	private static final VarHandle BODY;
+
+	static {
+		try {
+			BODY = MethodHandles.lookup().findVarHandle(TaskLazy.class, "_body", Runnable.class);
+		} catch (ReflectiveOperationException exception) {
+			throw new ExceptionInInitializerError(exception);
+		}
+	}
+
+	private volatile Runnable _body;
+
+	private TaskLazy(Executor executor) {
+		super((TaskResult<T>) null, executor);
+	}
+
+	static <T> Task<T> ofAction(TaskAction<T> action, Executor executor) {
+		final TaskLazy<T> task = new TaskLazy<>(executor);
+		final TaskStackTraces.CallerStack _mainStack = TaskStackTraces.capture();
+		task._body = () -> task.apply(ignored -> action.run(), null, _mainStack);
+		return task;
+	}
+
+	static <T> Task<T> ofFactory(TaskAction<Task<T>> factory, Executor executor) {
+		final TaskLazy<T> task = new TaskLazy<>(executor);
+		final TaskStackTraces.CallerStack _mainStack = TaskStackTraces.capture();
+		task._body = () -> task.track(() -> {
+			final Task<T> inner;
+			try {
+				inner = Objects.requireNonNull(factory.run(), Task.NULL_TASK);
+			} catch (Exception failure) {
+				TaskStackTraces.stitch(failure, _mainStack);
+				task.settleException(failure);
+				return;
+			}
+			inner.linkCancellation(task);
+			inner.onComplete(() -> task.settleFrom(inner));
+		});
+		return task;
+	}
+
+	@Override
+	void demand() {
+		if (this._body == null) return;
+		final Runnable body = (Runnable) BODY.getAndSet(this, (Runnable) null);
+		if (body != null && !this.isDone()) {
+			this.execute(body);
+		}
+	}
+
+}
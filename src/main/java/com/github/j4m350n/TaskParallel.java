@@ -0,0 +1,208 @@
+package com.github.j4m350n;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * Runs an action over many inputs with a bounded amount of actions in
+ * flight, see {@link Task#mapParallel(Collection, TaskActionMap, int)} and
+ * {@link Task#mapParallel(Iterator, TaskActionMap, int, TaskActionEach)}.
+ * </p>
+ */
+final class TaskParallel {
+
+	private TaskParallel() {
+	}
+
+	static void checkConcurrency(int maxConcurrency) {
+		if (maxConcurrency < 1) {
+			throw new IllegalArgumentException("Could not map in parallel: the concurrency must be at least 1!");
+		}
+	}
+
+	/**
+	 * Start at most <code>maxConcurrency</code> lanes, each running the
+	 * action for the next input that is not taken yet until none are left.
+	 * The outputs replace the inputs in the same array, so the list keeps
+	 * the input order without any extra allocation.
+	 */
+	@SuppressWarnings("unchecked")
+	static <I, O> Task<List<O>> map(Collection<I> inputs, TaskActionMap<O, I> action, int maxConcurrency, Executor executor) {
+		checkConcurrency(maxConcurrency);
+		final Object[] values = inputs.toArray();
+		final int size = values.length;
+		if (size == 0) return Task.succeeded(List.of(), executor);
+		final Task<List<O>> next = Task.pending(executor);
+		final AtomicInteger index = new AtomicInteger();
+		final AtomicInteger remaining = new AtomicInteger(size);
+		for (int lanes = Math.min(size, maxConcurrency); lanes > 0; lanes--) {
+			final Task<TaskUnit> lane = new Task<>(() -> {
+				int i;
+				while (!next.isDone() && (i = index.getAndIncrement()) < size) {
+					values[i] = Objects.requireNonNull(action.run((I) values[i]), Task.NULL_VALUE);
+					if (remaining.decrementAndGet() == 0) {
+						next.settleValue(Collections.unmodifiableList(Arrays.asList((O[]) values)));
+					}
+				}
+				return TaskUnit.INSTANCE;
+			}, executor);
+			lane.linkCancellation(next);
+			lane.onComplete(() -> {
+				final Exception exception = lane.exceptionNow();
+				if (exception != null) {
+					next.settleException(exception);
+				}
+			});
+		}
+		return next;
+	}
+
+	static <I, O> Task<TaskUnit> stream(
+		Iterator<? extends I> inputs,
+		TaskActionMap<O, I> action,
+		int maxConcurrency,
+		TaskActionEach<O> consumer,
+		Executor executor
+	) {
+		checkConcurrency(maxConcurrency);
+		final OrderedStream<I, O> stream = new OrderedStream<>(inputs, action, maxConcurrency, consumer, executor);
+		stream.fill();
+		return stream.result;
+	}
+
+	/**
+	 * <p>
+	 * Pulls inputs one by one and hands the outputs to the consumer in
+	 * input order. Outputs that complete early wait in a window of
+	 * <code>maxConcurrency</code> slots, and a new input is only pulled
+	 * once the slot it needs is free, so a slow action or consumer holds
+	 * back the inputs instead of buffering them.
+	 * </p>
+	 */
+	private static final class OrderedStream<I, O> {
+		final Task<TaskUnit> result;
+		private final Iterator<? extends I> inputs;
+		private final TaskActionMap<O, I> action;
+		private final TaskActionEach<O> consumer;
+		private final Executor executor;
+		private final Object[] window;
+		private final TaskStackTraces.CallerStack mainStack;
+		/**
+		 * The sequence numbers of the next input to pull and the next
+		 * output to hand to the consumer, guarded by <code>this</code>.
+		 */
+		private long pulled;
+		private long consumed;
+		private boolean exhausted;
+		private boolean consuming;
+
+		OrderedStream(
+			Iterator<? extends I> inputs,
+			TaskActionMap<O, I> action,
+			int maxConcurrency,
+			TaskActionEach<O> consumer,
+			Executor executor
+		) {
+			this.result = Task.pending(executor);
+			this.inputs = inputs;
+			this.action = action;
+			this.consumer = consumer;
+			this.executor = executor;
+			this.window = new Object[maxConcurrency];
+			this.mainStack = TaskStackTraces.capture();
+		}
+
+		/**
+		 * Start an action for every free slot in the window.
+		 */
+		void fill() {
+			while (true) {
+				final I input;
+				final long sequence;
+				synchronized (this) {
+					if (this.result.isDone() || this.exhausted) break;
+					if (this.pulled - this.consumed >= this.window.length) break;
+					try {
+						if (!this.inputs.hasNext()) {
+							this.exhausted = true;
+							break;
+						}
+						input = this.inputs.next();
+					} catch (RuntimeException exception) {
+						this.result.settleException(exception);
+						return;
+					}
+					sequence = this.pulled++;
+				}
+				final Task<O> task = new Task<>(() -> this.action.run(input), this.executor);
+				task.linkCancellation(this.result);
+				task.onComplete(() -> Task.runForeign(() -> this.complete(sequence, task)));
+			}
+			this.finishIfDone();
+		}
+
+		private void complete(long sequence, Task<O> task) {
+			final Exception exception = task.exceptionNow();
+			if (exception != null) {
+				this.result.settleException(exception);
+				return;
+			}
+			synchronized (this) {
+				this.window[(int) (sequence % this.window.length)] = task.valueNow();
+				if (this.consuming) return;
+				this.consuming = true;
+			}
+			this.consume();
+			this.fill();
+		}
+
+		/**
+		 * Hand every output that is next in line to the consumer. Only one
+		 * thread consumes at a time, so the consumer sees the outputs one
+		 * by one and in order.
+		 */
+		@SuppressWarnings("unchecked")
+		private void consume() {
+			while (true) {
+				final O value;
+				synchronized (this) {
+					final int slot = (int) (this.consumed % this.window.length);
+					value = (O) this.window[slot];
+					if (value == null || this.result.isDone()) {
+						this.consuming = false;
+						return;
+					}
+					this.window[slot] = null;
+				}
+				try {
+					this.consumer.run(value);
+				} catch (Exception exception) {
+					TaskStackTraces.stitch(exception, this.mainStack);
+					synchronized (this) {
+						this.consuming = false;
+					}
+					this.result.settleException(exception);
+					return;
+				}
+				synchronized (this) {
+					this.consumed++;
+				}
+			}
+		}
+
+		private void finishIfDone() {
+			synchronized (this) {
+				if (!this.exhausted || this.consuming || this.consumed != this.pulled) return;
+			}
+			this.result.settleValue(TaskUnit.INSTANCE);
+		}
+	}
+
+}
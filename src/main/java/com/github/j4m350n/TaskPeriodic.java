@@ -0,0 +1,96 @@
+package com.github.j4m350n;
+
+import java.util.concurrent.Executor;
+
+/**
+ * <p>
+ * Runs an action over and over at a fixed rate, see
+ * {@link Task#schedulePeriodic(java.time.Duration, java.time.Duration, TaskActionEach)}.
+ * Every run is scheduled on the {@link TaskTimer} and handed to the
+ * executor once it is due, and a run only starts after the previous one
+ * completed.
+ * </p>
+ */
+final class TaskPeriodic {
+
+	final Task<TaskUnit> result;
+	private final TaskActionEach<Long> action;
+	private final long period;
+	private final Executor executor;
+	private final TaskStackTraces.CallerStack mainStack;
+	/**
+	 * The {@link System#nanoTime()} the next run is due at, and the amount
+	 * of runs so far. Runs never overlap, each one is only scheduled after
+	 * the previous one completed.
+	 */
+	private long deadline;
+	private long runs;
+	private volatile TaskTimer.Timeout timeout;
+	private volatile Task<TaskUnit> running;
+
+	private TaskPeriodic(TaskActionEach<Long> action, long period, Executor executor) {
+		this.result = Task.pending(executor);
+		this.action = action;
+		this.period = period;
+		this.executor = executor;
+		this.mainStack = TaskStackTraces.capture();
+	}
+
+	static Task<TaskUnit> start(TaskActionEach<Long> action, long initialDelay, long period, Executor executor) {
+		final TaskPeriodic periodic = new TaskPeriodic(action, period, executor);
+		periodic.result.onComplete(periodic::stop);
+		periodic.deadline = System.nanoTime() + initialDelay;
+		periodic.schedule();
+		return periodic.result;
+	}
+
+	private void schedule() {
+		final TaskTimer.Timeout timeout = TaskTimer.schedule(this::run, this.deadline - System.nanoTime());
+		this.timeout = timeout;
+		if (this.result.isDone()) {
+			timeout.cancel();
+		}
+	}
+
+	private void run() {
+		final Task<TaskUnit> task = Task.pending(this.executor);
+		final long run = this.runs;
+		this.running = task;
+		if (this.result.isDone()) {
+			task.cancel();
+			return;
+		}
+		task.onComplete(() -> this.complete(task));
+		task.execute(() -> task.apply(ignored -> {
+			this.action.run(run);
+			return TaskUnit.INSTANCE;
+		}, null, this.mainStack));
+	}
+
+	private void complete(Task<TaskUnit> task) {
+		final Exception exception = task.exceptionNow();
+		if (exception != null) {
+			this.result.settleException(exception);
+			return;
+		}
+		this.runs++;
+		this.deadline += this.period;
+		final long now = System.nanoTime();
+		if (this.deadline - now < 0) {
+			this.deadline = now;
+		}
+		this.schedule();
+	}
+
+	private void stop() {
+		final TaskTimer.Timeout timeout = this.timeout;
+		if (timeout != null) {
+			timeout.cancel();
+		}
+		final Task<TaskUnit> running = this.running;
+		if (running != null) {
+			running.cancel();
+		}
+	}
+
+}
@@ -0,0 +1,240 @@
+package com.github.j4m350n;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+
+/**
+ * <p>
+ * Publishes the values of a stream of tasks to a {@link Flow.Subscriber},
+ * either in the order of the tasks or as they complete. Tasks are only
+ * pulled from the source while the subscriber has demand for their values,
+ * with at most <code>maxConcurrency</code> of them in flight, so a slow
+ * subscriber holds back the source instead of piling up values. When the
+ * source creates its tasks as it is iterated, that bounds the work in
+ * flight as well.
+ * </p>
+ * <p>
+ * The first task that fails ends the stream with its exception, and the
+ * tasks still in flight are cancelled. Cancelling the subscription
+ * cancels them as well. Every subscriber gets its own iterator of the
+ * source.
+ * </p>
+ *
+ * <pre>{@code
+ *   Iterable<Task<User>> users = () -> ids.stream()
+ *     .map(id -> new Task<>(() -> loadUserSomehow(id)))
+ *     .iterator();
+ *   TaskPublisher.unordered(users, 16).subscribe(subscriber);
+ * }</pre>
+ *
+ * @param <T> The type of the values of the tasks.
+ */
+public final class TaskPublisher<T> implements Flow.Publisher<T> {
+
+	private final Iterable<? extends Task<T>> tasks;
+	private final int maxConcurrency;
+	private final boolean ordered;
+
+	private TaskPublisher(Iterable<? extends Task<T>> tasks, int maxConcurrency, boolean ordered) {
+		this.tasks = Objects.requireNonNull(tasks, "Could not create the publisher: the tasks cannot be null!");
+		TaskParallel.checkConcurrency(maxConcurrency);
+		this.maxConcurrency = maxConcurrency;
+		this.ordered = ordered;
+	}
+
+	/**
+	 * @param tasks          The tasks to publish the values of.
+	 * @param maxConcurrency The maximum amount of tasks in flight.
+	 * @param <T>            The type of the values of the tasks.
+	 * @return A publisher that publishes the values in the order of the
+	 * tasks.
+	 */
+	public static <T> TaskPublisher<T> ordered(Iterable<? extends Task<T>> tasks, int maxConcurrency) {
+		return new TaskPublisher<>(tasks, maxConcurrency, true);
+	}
+
+	/**
+	 * @param tasks          The tasks to publish the values of.
+	 * @param maxConcurrency The maximum amount of tasks in flight.
+	 * @param <T>            The type of the values of the tasks.
+	 * @return A publisher that publishes the values as the tasks complete.
+	 */
+	public static <T> TaskPublisher<T> unordered(Iterable<? extends Task<T>> tasks, int maxConcurrency) {
+		return new TaskPublisher<>(tasks, maxConcurrency, false);
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super T> subscriber) {
+		Objects.requireNonNull(subscriber, "Could not subscribe: the subscriber cannot be null!");
+		final Iterator<? extends Task<T>> iterator;
+		try {
+			iterator = this.tasks.iterator();
+		} catch (RuntimeException exception) {
+			subscriber.onSubscribe(new Subscription<>(null, subscriber, 0, false));
+			subscriber.onError(exception);
+			return;
+		}
+		final Subscription<T> subscription = new Subscription<>(iterator, subscriber, this.maxConcurrency, this.ordered);
+		subscriber.onSubscribe(subscription);
+		subscription.drain();
+	}
+
+	/**
+	 * <p>
+	 * Hands the values to the subscriber one at a time. Whoever changes the
+	 * state calls {@link #drain()}, and only one thread drains at a time.
+	 * The draining thread looks at the state again after every value it
+	 * hands over, so it picks up the changes of the others.
+	 * </p>
+	 */
+	private static final class Subscription<T> implements Flow.Subscription {
+		private final Iterator<? extends Task<T>> source;
+		private final Flow.Subscriber<? super T> subscriber;
+		private final int maxConcurrency;
+		private final boolean ordered;
+		/**
+		 * The tasks pulled from the source whose values were not handed to
+		 * the subscriber yet, in the order they were pulled, and the
+		 * remaining demand, guarded by <code>this</code>.
+		 */
+		private final ArrayDeque<Task<T>> window = new ArrayDeque<>();
+		private long requested;
+		private boolean exhausted;
+		private boolean finished;
+		private boolean draining;
+		private Throwable invalidRequest;
+
+		Subscription(Iterator<? extends Task<T>> source, Flow.Subscriber<? super T> subscriber, int maxConcurrency, boolean ordered) {
+			this.source = source;
+			this.subscriber = subscriber;
+			this.maxConcurrency = maxConcurrency;
+			this.ordered = ordered;
+			this.finished = source == null;
+		}
+
+		@Override
+		public void request(long n) {
+			synchronized (this) {
+				if (this.finished) return;
+				if (n <= 0) {
+					this.invalidRequest = new IllegalArgumentException("Could not request values: the amount must be positive!");
+				} else {
+					this.requested = this.requested + n < 0 ? Long.MAX_VALUE : this.requested + n;
+				}
+			}
+			this.drain();
+		}
+
+		@Override
+		public void cancel() {
+			synchronized (this) {
+				if (this.finished) return;
+				this.finished = true;
+			}
+			this.cancelWindow();
+		}
+
+		void drain() {
+			synchronized (this) {
+				if (this.draining) return;
+				this.draining = true;
+			}
+			while (true) {
+				Task<T> ready = null;
+				Task<T> pulled = null;
+				Throwable error = null;
+				boolean complete = false;
+				synchronized (this) {
+					if (this.finished) {
+						this.draining = false;
+						return;
+					}
+					if (this.invalidRequest != null) {
+						error = this.invalidRequest;
+					} else if ((ready = this.poll()) != null) {
+						if (ready.exceptionNow() == null && this.requested != Long.MAX_VALUE) {
+							this.requested--;
+						}
+					} else if (this.exhausted && this.window.isEmpty()) {
+						complete = true;
+					} else if (!this.exhausted && this.window.size() < Math.min(this.requested, this.maxConcurrency)) {
+						try {
+							if (this.source.hasNext()) {
+								pulled = Objects.requireNonNull(this.source.next(), "Could not publish the task: the task cannot be null!");
+								this.window.add(pulled);
+							} else {
+								this.exhausted = true;
+							}
+						} catch (RuntimeException exception) {
+							error = exception;
+						}
+					} else {
+						this.draining = false;
+						return;
+					}
+					if (complete || error != null || (ready != null && ready.exceptionNow() != null)) {
+						this.finished = true;
+						this.draining = false;
+					}
+				}
+				if (pulled != null) {
+					final Task<T> task = pulled;
+					task.onComplete(() -> Task.runForeign(this::drain));
+				} else if (ready != null) {
+					final Exception exception = ready.exceptionNow();
+					if (exception != null) {
+						this.cancelWindow();
+						this.subscriber.onError(exception);
+						return;
+					}
+					try {
+						this.subscriber.onNext(ready.valueNow());
+					} catch (RuntimeException failure) {
+						this.cancel();
+						return;
+					}
+				} else if (error != null) {
+					this.cancelWindow();
+					this.subscriber.onError(error);
+					return;
+				} else if (complete) {
+					this.subscriber.onComplete();
+					return;
+				}
+			}
+		}
+
+		/**
+		 * @return The next task whose outcome can be handed to the
+		 * subscriber: the oldest task when it completed, in order, or the
+		 * oldest completed task otherwise. A failure can be handed over
+		 * without demand, a value cannot.
+		 */
+		private Task<T> poll() {
+			final Iterator<Task<T>> iterator = this.window.iterator();
+			while (iterator.hasNext()) {
+				final Task<T> task = iterator.next();
+				if (task.isDone() && (this.requested > 0 || task.exceptionNow() != null)) {
+					iterator.remove();
+					return task;
+				}
+				if (this.ordered) break;
+			}
+			return null;
+		}
+
+		private void cancelWindow() {
+			final Task<?>[] tasks;
+			synchronized (this) {
+				tasks = this.window.toArray(new Task<?>[0]);
+				this.window.clear();
+			}
+			for (Task<?> task : tasks) {
+				task.cancel();
+			}
+		}
+	}
+
+}
@@ -2,6 +2,8 @@ package com.github.j4m350n;
 
 @SuppressWarnings("ClassCanBeRecord")
 public class TaskResult<T> {
+	private static final TaskResult<TaskUnit> UNIT = success(TaskUnit.INSTANCE);
+
 	public static <T> TaskResult<T> success(T value) {
 		return new TaskResult<>(false, null, value);
 	}
@@ -10,6 +12,14 @@ public class TaskResult<T> {
 		return new TaskResult<>(true, exception, null);
 	}
 
+	/**
+	 * @return The shared successful result of an action that is only run
+	 * for its side effects.
+	 */
+	public static TaskResult<TaskUnit> unit() {
+		return UNIT;
+	}
+
 	public final boolean didThrow;
 	public final Exception exception;
 	public final T value;
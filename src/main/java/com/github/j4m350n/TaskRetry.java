@@ -0,0 +1,79 @@
+package com.github.j4m350n;
+
+import java.util.concurrent.Executor;
+
+/**
+ * <p>
+ * Runs an action again after it fails, as described by a
+ * {@link TaskRetryPolicy}, see
+ * {@link Task#retrying(TaskAction, TaskRetryPolicy)}. The wait between two
+ * attempts is scheduled on the {@link TaskTimer}, so no worker sleeps
+ * through the backoff.
+ * </p>
+ */
+final class TaskRetry<T> {
+
+	final Task<T> result;
+	private final TaskAction<T> action;
+	private final TaskRetryPolicy policy;
+	private final Executor executor;
+	private final TaskStackTraces.CallerStack mainStack;
+	/**
+	 * The exception of the previous failed attempt. Attempts never overlap,
+	 * each one only starts after the previous one completed.
+	 */
+	private Exception failure;
+
+	private TaskRetry(TaskAction<T> action, TaskRetryPolicy policy, Executor executor) {
+		this.result = Task.pending(executor);
+		this.action = action;
+		this.policy = policy;
+		this.executor = executor;
+		this.mainStack = TaskStackTraces.capture();
+	}
+
+	static <T> Task<T> run(TaskAction<T> action, TaskRetryPolicy policy, Executor executor) {
+		final TaskRetry<T> retry = new TaskRetry<>(action, policy, executor);
+		retry.attempt(1);
+		return retry.result;
+	}
+
+	private void attempt(int attempt) {
+		if (this.result.isDone()) return;
+		final Task<T> task = Task.pending(this.executor);
+		task.linkCancellation(this.result);
+		task.onComplete(() -> this.complete(attempt, task));
+		task.execute(() -> task.apply(ignored -> this.action.run(), null, this.mainStack));
+	}
+
+	private void complete(int attempt, Task<T> task) {
+		final Exception exception = task.exceptionNow();
+		if (exception == null) {
+			this.result.settleValue(task.valueNow());
+			return;
+		}
+		if (this.result.isDone()) return;
+		if (this.failure != null && this.failure != exception) {
+			exception.addSuppressed(this.failure);
+		}
+		this.failure = exception;
+		final boolean retry;
+		try {
+			retry = this.policy.shouldRetry(attempt, exception);
+		} catch (RuntimeException predicateFailure) {
+			exception.addSuppressed(predicateFailure);
+			this.result.settleException(exception);
+			return;
+		}
+		if (!retry) {
+			this.result.settleException(exception);
+			return;
+		}
+		final TaskTimer.Timeout timeout = TaskTimer.schedule(
+			() -> this.attempt(attempt + 1),
+			this.policy.backoff(attempt)
+		);
+		this.result.onComplete(timeout::cancel);
+	}
+
+}
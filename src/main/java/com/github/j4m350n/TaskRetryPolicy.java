@@ -0,0 +1,182 @@
+package com.github.j4m350n;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * <p>
+ * Describes how {@link Task#retrying(TaskAction, TaskRetryPolicy)} retries
+ * a failing action: how many attempts it makes, how long it waits between
+ * them and which exceptions are worth retrying. The wait starts at the
+ * initial backoff and is multiplied after every failed attempt, up to the
+ * maximum backoff. Jitter shortens every wait by a random fraction so
+ * clients that failed together do not retry together.
+ * </p>
+ * <p>
+ * Policies are immutable, every <i>with</i> method returns a new policy.
+ * </p>
+ *
+ * <pre>{@code
+ *   TaskRetryPolicy policy = TaskRetryPolicy.attempts(5)
+ *     .withBackoff(Duration.ofMillis(50), Duration.ofSeconds(2))
+ *     .withJitter(0.5)
+ *     .retryOn(exception -> exception instanceof IOException);
+ * }</pre>
+ */
+public final class TaskRetryPolicy {
+
+	private final int maxAttempts;
+	private final long initialBackoff;
+	private final long maxBackoff;
+	private final double multiplier;
+	private final double jitter;
+	private final Predicate<? super Exception> retryOn;
+
+	private TaskRetryPolicy(
+		int maxAttempts,
+		long initialBackoff,
+		long maxBackoff,
+		double multiplier,
+		double jitter,
+		Predicate<? super Exception> retryOn
+	) {
+		this.maxAttempts = maxAttempts;
+		this.initialBackoff = initialBackoff;
+		this.maxBackoff = maxBackoff;
+		this.multiplier = multiplier;
+		this.jitter = jitter;
+		this.retryOn = retryOn;
+	}
+
+	/**
+	 * <p>
+	 * Create a policy that makes at most the provided amount of attempts,
+	 * waiting 100 milliseconds after the first failure and twice as long
+	 * after every next one, up to 10 seconds, without jitter, and retrying
+	 * on every exception.
+	 * </p>
+	 *
+	 * @param maxAttempts The maximum amount of attempts, including the
+	 *                    first one.
+	 * @return The new policy.
+	 */
+	public static TaskRetryPolicy attempts(int maxAttempts) {
+		if (maxAttempts < 1) {
+			throw new IllegalArgumentException("Could not create the retry policy: the attempts must be at least 1!");
+		}
+		return new TaskRetryPolicy(
+			maxAttempts,
+			Duration.ofMillis(100).toNanos(),
+			Duration.ofSeconds(10).toNanos(),
+			2,
+			0,
+			exception -> true
+		);
+	}
+
+	/**
+	 * @param initialBackoff The wait after the first failed attempt.
+	 * @param maxBackoff     The longest wait between two attempts.
+	 * @return The new policy.
+	 */
+	public TaskRetryPolicy withBackoff(Duration initialBackoff, Duration maxBackoff) {
+		if (initialBackoff.isNegative() || maxBackoff.compareTo(initialBackoff) < 0) {
+			throw new IllegalArgumentException("Could not set the backoff: the backoff cannot be negative or exceed the maximum!");
+		}
+		return new TaskRetryPolicy(
+			this.maxAttempts,
+			initialBackoff.toNanos(),
+			maxBackoff.toNanos(),
+			this.multiplier,
+			this.jitter,
+			this.retryOn
+		);
+	}
+
+	/**
+	 * @param multiplier What to multiply the wait with after every failed
+	 *                   attempt, <code>1</code> for a fixed backoff.
+	 * @return The new policy.
+	 */
+	public TaskRetryPolicy withMultiplier(double multiplier) {
+		if (!(multiplier >= 1)) {
+			throw new IllegalArgumentException("Could not set the multiplier: the multiplier must be at least 1!");
+		}
+		return new TaskRetryPolicy(
+			this.maxAttempts,
+			this.initialBackoff,
+			this.maxBackoff,
+			multiplier,
+			this.jitter,
+			this.retryOn
+		);
+	}
+
+	/**
+	 * @param jitter The largest fraction of a wait to randomly take off,
+	 *               from <code>0</code> for no jitter to <code>1</code>
+	 *               for a wait anywhere between zero and the backoff.
+	 * @return The new policy.
+	 */
+	public TaskRetryPolicy withJitter(double jitter) {
+		if (!(jitter >= 0 && jitter <= 1)) {
+			throw new IllegalArgumentException("Could not set the jitter: the jitter must be between 0 and 1!");
+		}
+		return new TaskRetryPolicy(
+			this.maxAttempts,
+			this.initialBackoff,
+			this.maxBackoff,
+			this.multiplier,
+			jitter,
+			this.retryOn
+		);
+	}
+
+	/**
+	 * @param retryOn Whether an exception is worth another attempt. Any
+	 *                other exception fails the task right away.
+	 * @return The new policy.
+	 */
+	public TaskRetryPolicy retryOn(Predicate<? super Exception> retryOn) {
+		Objects.requireNonNull(retryOn, "Could not set the retry predicate: the predicate cannot be null!");
+		return new TaskRetryPolicy(
+			this.maxAttempts,
+			this.initialBackoff,
+			this.maxBackoff,
+			this.multiplier,
+			this.jitter,
+			retryOn
+		);
+	}
+
+	public int getMaxAttempts() {
+		return this.maxAttempts;
+	}
+
+	/**
+	 * @param attempt   The attempt that just failed, starting at
+	 *                  <code>1</code>.
+	 * @param exception The exception it failed with.
+	 * @return Whether to make another attempt.
+	 */
+	boolean shouldRetry(int attempt, Exception exception) {
+		return attempt < this.maxAttempts && this.retryOn.test(exception);
+	}
+
+	/**
+	 * @param attempt The attempt that just failed, starting at
+	 *                <code>1</code>.
+	 * @return The wait before the next attempt in nanoseconds.
+	 */
+	long backoff(int attempt) {
+		final double backoff = Math.min(
+			this.initialBackoff * Math.pow(this.multiplier, attempt - 1),
+			this.maxBackoff
+		);
+		if (this.jitter == 0) return (long) backoff;
+		return (long) (backoff * (1 - this.jitter * ThreadLocalRandom.current().nextDouble()));
+	}
+
+}
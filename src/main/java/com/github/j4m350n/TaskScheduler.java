@@ -0,0 +1,114 @@
+package com.github.j4m350n;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * Holds the process-wide executor used by every {@link Task} that is not
+ * given an explicit {@link Executor}.
+ * </p>
+ * <p>
+ * The default executor is a cached pool of daemon worker threads, so idle
+ * workers are reused by later tasks instead of starting a new thread for
+ * every action, and the pool never keeps the JVM alive on its own.
+ * </p>
+ *
+ * <pre>{@code
+ *   ExecutorService pool = Executors.newFixedThreadPool(8);
+ *   TaskScheduler.setDefaultExecutor(pool);
+ *
+ *   Integer result = new Task<>(() -> 123).await();
+ * }</pre>
+ */
+public final class TaskScheduler {
+
+	private static volatile Executor defaultExecutor = PlatformExecutorHolder.EXECUTOR;
+
+	private TaskScheduler() {
+	}
+
+	/**
+	 * @return The executor used by tasks that are not given one explicitly.
+	 */
+	public static Executor getDefaultExecutor() {
+		return defaultExecutor;
+	}
+
+	/**
+	 * <p>
+	 * Replace the process-wide default executor. Tasks that are already
+	 * running keep the executor they were created with.
+	 * </p>
+	 *
+	 * @param executor The new default executor.
+	 */
+	public static void setDefaultExecutor(Executor executor) {
+		if (executor == null) {
+			throw new NullPointerException("Could not set the default executor: the executor cannot be null!");
+		}
+		defaultExecutor = executor;
+	}
+
+	/**
+	 * @return Whether the running JVM can run actions on virtual threads.
+	 */
+	public static boolean supportsVirtualThreads() {
+		return TaskVirtualThreads.isSupported();
+	}
+
+	/**
+	 * <p>
+	 * An executor that runs every action on its own virtual thread, meant
+	 * for actions that spend most of their time in blocking I/O. On JVMs
+	 * without virtual threads (Java 17) this falls back to the default
+	 * platform thread pool.
+	 * </p>
+	 *
+	 * <pre>{@code
+	 *   new Task<>(() -> loadUserFromDatabase(id), TaskScheduler.getVirtualThreadExecutor())
+	 *     .await();
+	 * }</pre>
+	 *
+	 * @return The virtual thread executor.
+	 */
+	public static Executor getVirtualThreadExecutor() {
+		Executor executor = VirtualThreadExecutorHolder.EXECUTOR;
+		return executor != null ? executor : PlatformExecutorHolder.EXECUTOR;
+	}
+
+	/**
+	 * <p>
+	 * Opt in to running every task without an explicit executor on virtual
+	 * threads, see {@link #getVirtualThreadExecutor()}.
+	 * </p>
+	 */
+	public static void useVirtualThreads() {
+		setDefaultExecutor(getVirtualThreadExecutor());
+	}
+
+	private static ExecutorService createDefaultExecutor() {
+		return Executors.newCachedThreadPool(new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "task-worker-" + this.count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	private static final class PlatformExecutorHolder {
+		static final Executor EXECUTOR = createDefaultExecutor();
+	}
+
+	private static final class VirtualThreadExecutorHolder {
+		static final Executor EXECUTOR = TaskVirtualThreads.createExecutor();
+	}
+
+}
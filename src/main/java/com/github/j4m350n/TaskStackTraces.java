@@ -0,0 +1,198 @@
+package com.github.j4m350n;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <p>
+ * Controls how a {@link Task} records the stack of the code that created it.
+ * When an action fails on a worker thread, the recorded stack is appended
+ * to the exception, so the trace shows where the task came from and not
+ * only the worker that ran it.
+ * </p>
+ * <p>
+ * The capture is cheap and lazy. Stack frames are only turned into
+ * {@link StackTraceElement}s when an action actually fails.
+ * </p>
+ *
+ * <pre>{@code
+ *   // Record the creating stack of roughly one out of every 100 tasks,
+ *   TaskStackTraces.setSampleRate(100);
+ *   TaskStackTraces.setMode(TaskStackTraces.Mode.SAMPLED);
+ *
+ *   // or record at most 16 frames through a StackWalker.
+ *   TaskStackTraces.setFrameLimit(16);
+ *   TaskStackTraces.setMode(TaskStackTraces.Mode.WALKER);
+ * }</pre>
+ */
+public final class TaskStackTraces {
+
+	public enum Mode {
+		/**
+		 * Never record the creating stack.
+		 */
+		OFF,
+		/**
+		 * Record the full creating stack of every task.
+		 */
+		FULL,
+		/**
+		 * Record the full creating stack of roughly one out of every
+		 * {@link #getSampleRate()} tasks.
+		 */
+		SAMPLED,
+		/**
+		 * Record at most {@link #getFrameLimit()} frames of the creating
+		 * stack of every task through a {@link StackWalker}.
+		 */
+		WALKER
+	}
+
+	private static final StackWalker WALKER = StackWalker.getInstance();
+
+	private static volatile Mode mode = Mode.FULL;
+	private static volatile int sampleRate = 100;
+	private static volatile int frameLimit = 32;
+
+	private TaskStackTraces() {
+	}
+
+	public static Mode getMode() {
+		return mode;
+	}
+
+	public static void setMode(Mode mode) {
+		if (mode == null) {
+			throw new NullPointerException("Could not set the stack trace mode: the mode cannot be null!");
+		}
+		TaskStackTraces.mode = mode;
+	}
+
+	public static int getSampleRate() {
+		return sampleRate;
+	}
+
+	/**
+	 * @param sampleRate Record one out of this many task stacks in
+	 *                   {@link Mode#SAMPLED} mode.
+	 */
+	public static void setSampleRate(int sampleRate) {
+		if (sampleRate < 1) {
+			throw new IllegalArgumentException("Could not set the stack trace sample rate: the rate must be at least 1!");
+		}
+		TaskStackTraces.sampleRate = sampleRate;
+	}
+
+	public static int getFrameLimit() {
+		return frameLimit;
+	}
+
+	/**
+	 * @param frameLimit The maximum amount of frames to record in
+	 *                   {@link Mode#WALKER} mode.
+	 */
+	public static void setFrameLimit(int frameLimit) {
+		if (frameLimit < 1) {
+			throw new IllegalArgumentException("Could not set the stack trace frame limit: the limit must be at least 1!");
+		}
+		TaskStackTraces.frameLimit = frameLimit;
+	}
+
+	/**
+	 * Record the stack of the current thread according to the current mode.
+	 *
+	 * @return The recorded stack, or <code>null</code> if nothing was
+	 * recorded.
+	 */
+	static CallerStack capture() {
+		switch (mode) {
+			case FULL:
+				return new ThrowableCallerStack();
+			case SAMPLED:
+				int rate = sampleRate;
+				if (rate == 1 || ThreadLocalRandom.current().nextInt(rate) == 0) {
+					return new ThrowableCallerStack();
+				}
+				return null;
+			case WALKER:
+				int limit = frameLimit;
+				return new WalkerCallerStack(WALKER.walk(frames -> frames
+					.dropWhile(frame -> isInternal(frame.getClassName()))
+					.limit(limit)
+					.toList()
+				));
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * Append the recorded stack to the stack trace of the exception.
+	 *
+	 * @param exception   The exception thrown by the task.
+	 * @param callerStack The stack recorded by {@link #capture()}.
+	 */
+	static void stitch(Exception exception, CallerStack callerStack) {
+		if (callerStack == null) return;
+		StackTraceElement[] mainStack = callerStack.frames();
+		StackTraceElement[] stack = exception.getStackTrace();
+		StackTraceElement[] newStack = new StackTraceElement[stack.length + mainStack.length];
+		System.arraycopy(stack, 0, newStack, 0, stack.length);
+		System.arraycopy(mainStack, 0, newStack, stack.length, mainStack.length);
+		exception.setStackTrace(newStack);
+	}
+
+	private static boolean isInternal(String className) {
+		return className.equals(Task.class.getName()) ||
+			className.equals(IntTask.class.getName()) ||
+			className.equals(LongTask.class.getName()) ||
+			className.equals(DoubleTask.class.getName()) ||
+			className.equals(TaskLazy.class.getName()) ||
+			className.equals(TaskStackTraces.class.getName()) ||
+			className.startsWith(TaskStackTraces.class.getName() + "$");
+	}
+
+	interface CallerStack {
+		StackTraceElement[] frames();
+	}
+
+	/**
+	 * Uses the native backtrace filled in by {@link Throwable}, which is
+	 * only turned into stack trace elements when an action fails.
+	 */
+	private static final class ThrowableCallerStack extends Throwable implements CallerStack {
+		ThrowableCallerStack() {
+			super(null, null, false, true);
+		}
+
+		@Override
+		public StackTraceElement[] frames() {
+			StackTraceElement[] stack = this.getStackTrace();
+			int start = 0;
+			while (start < stack.length && isInternal(stack[start].getClassName())) {
+				start++;
+			}
+			StackTraceElement[] frames = new StackTraceElement[stack.length - start];
+			System.arraycopy(stack, start, frames, 0, frames.length);
+			return frames;
+		}
+	}
+
+	private static final class WalkerCallerStack implements CallerStack {
+		private final List<StackWalker.StackFrame> frames;
+
+		WalkerCallerStack(List<StackWalker.StackFrame> frames) {
+			this.frames = frames;
+		}
+
+		@Override
+		public StackTraceElement[] frames() {
+			StackTraceElement[] frames = new StackTraceElement[this.frames.size()];
+			for (int i = 0; i < frames.length; i++) {
+				frames[i] = this.frames.get(i).toStackTraceElement();
+			}
+			return frames;
+		}
+	}
+
+}
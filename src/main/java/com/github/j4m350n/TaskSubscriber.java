@@ -0,0 +1,135 @@
+package com.github.j4m350n;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * Runs an action for every item of a {@link Flow.Publisher}, with at most
+ * <code>maxConcurrency</code> actions in flight. The subscriber only
+ * requests a new item once an action completes, so the publisher never
+ * has to buffer more items than the actions can keep up with.
+ * </p>
+ * <p>
+ * The task from {@link #completion()} completes once the publisher
+ * completed and every action finished. The first action that fails, or
+ * an error of the publisher, fails that task, cancels the subscription
+ * and cancels the actions still running. Cancelling that task does the
+ * same.
+ * </p>
+ *
+ * <pre>{@code
+ *   TaskSubscriber<Event> subscriber = new TaskSubscriber<>(event -> storeSomehow(event), 32);
+ *   publisher.subscribe(subscriber);
+ *   subscriber.completion().await();
+ * }</pre>
+ *
+ * @param <T> The type of the items.
+ */
+public final class TaskSubscriber<T> implements Flow.Subscriber<T> {
+
+	private final TaskActionEach<T> action;
+	private final int maxConcurrency;
+	private final Executor executor;
+	private final Task<TaskUnit> completion;
+	private final Set<Task<TaskUnit>> running = ConcurrentHashMap.newKeySet();
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final TaskStackTraces.CallerStack mainStack;
+	private volatile Flow.Subscription subscription;
+	private volatile boolean upstreamDone;
+
+	/**
+	 * @param action         The action to run for each item.
+	 * @param maxConcurrency The maximum amount of actions in flight.
+	 */
+	public TaskSubscriber(TaskActionEach<T> action, int maxConcurrency) {
+		this(action, maxConcurrency, TaskScheduler.getDefaultExecutor());
+	}
+
+	/**
+	 * @param action         The action to run for each item.
+	 * @param maxConcurrency The maximum amount of actions in flight.
+	 * @param executor       The executor to run the actions on.
+	 */
+	public TaskSubscriber(TaskActionEach<T> action, int maxConcurrency, Executor executor) {
+		this.action = Objects.requireNonNull(action, "Could not create the subscriber: the action cannot be null!");
+		TaskParallel.checkConcurrency(maxConcurrency);
+		this.maxConcurrency = maxConcurrency;
+		this.executor = Objects.requireNonNull(executor, "Could not create the subscriber: the executor cannot be null!");
+		this.completion = Task.pending(executor);
+		this.mainStack = TaskStackTraces.capture();
+	}
+
+	/**
+	 * @return A task that completes once every item was handled.
+	 */
+	public Task<TaskUnit> completion() {
+		return this.completion;
+	}
+
+	@Override
+	public void onSubscribe(Flow.Subscription subscription) {
+		Objects.requireNonNull(subscription, "Could not subscribe: the subscription cannot be null!");
+		if (this.subscription != null) {
+			subscription.cancel();
+			return;
+		}
+		this.subscription = subscription;
+		this.completion.onComplete(() -> {
+			if (this.completion.exceptionNow() == null) return;
+			Task.runForeign(subscription::cancel);
+			for (Task<TaskUnit> task : this.running) {
+				task.cancel();
+			}
+		});
+		subscription.request(this.maxConcurrency);
+	}
+
+	@Override
+	public void onNext(T item) {
+		Objects.requireNonNull(item, "Could not handle the item: the item cannot be null!");
+		if (this.completion.isDone()) return;
+		this.inFlight.incrementAndGet();
+		final Task<TaskUnit> task = Task.pending(this.executor);
+		this.running.add(task);
+		task.onComplete(() -> Task.runForeign(() -> this.complete(task)));
+		task.execute(() -> task.apply(value -> {
+			this.action.run(value);
+			return TaskUnit.INSTANCE;
+		}, item, this.mainStack));
+	}
+
+	@Override
+	public void onError(Throwable throwable) {
+		Objects.requireNonNull(throwable, "Could not handle the error: the error cannot be null!");
+		this.completion.settleException(throwable instanceof Exception ? (Exception) throwable : new ExecutionException(throwable));
+	}
+
+	@Override
+	public void onComplete() {
+		this.upstreamDone = true;
+		if (this.inFlight.get() == 0) {
+			this.completion.settleValue(TaskUnit.INSTANCE);
+		}
+	}
+
+	private void complete(Task<TaskUnit> task) {
+		this.running.remove(task);
+		final Exception exception = task.exceptionNow();
+		if (exception != null) {
+			this.completion.settleException(exception);
+			return;
+		}
+		if (this.inFlight.decrementAndGet() == 0 && this.upstreamDone) {
+			this.completion.settleValue(TaskUnit.INSTANCE);
+		} else if (!this.completion.isDone()) {
+			this.subscription.request(1);
+		}
+	}
+
+}
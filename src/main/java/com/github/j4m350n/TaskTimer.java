@@ -0,0 +1,228 @@
+package com.github.j4m350n;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * The timer shared by every {@link Task} for timeouts, deadlines, retries
+ * and scheduled tasks. All timeouts fire on a single daemon thread, so a
+ * pending timeout never holds a sleeping worker. Timeout actions run on
+ * the timer thread and must only hand work off.
+ * </p>
+ * <p>
+ * The timer is a hashed timing wheel: a ring of buckets that the timer
+ * thread visits one tick at a time, where each timeout sits in the bucket
+ * of the tick it expires at, with the amount of full turns still left.
+ * Scheduling pushes the timeout onto a lock-free stack that the timer
+ * thread moves into the wheel, and cancelling only marks the timeout, so
+ * both take constant time no matter how many timeouts are pending. A
+ * cancelled timeout lets go of its action right away and is dropped from
+ * its bucket the next time the timer thread visits it. The timer thread
+ * parks until the next tick whose bucket holds a timeout, or for good
+ * while no timeouts are pending, instead of waking up on every tick.
+ * </p>
+ */
+final class TaskTimer {
+
+	private static final long TICK = TimeUnit.MILLISECONDS.toNanos(1);
+	private static final int WHEEL_SIZE = 512;
+	private static final VarHandle SCHEDULED;
+	private static final VarHandle STATE;
+
+	static {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			SCHEDULED = lookup.findVarHandle(TaskTimer.class, "scheduled", Timeout.class);
+			STATE = lookup.findVarHandle(Timeout.class, "state", int.class);
+		} catch (ReflectiveOperationException exception) {
+			throw new ExceptionInInitializerError(exception);
+		}
+	}
+
+	private static final TaskTimer TIMER = new TaskTimer();
+
+	/**
+	 * Timeouts scheduled since the timer thread last looked, linked
+	 * through {@link Timeout#next}.
+	 */
+	private volatile Timeout scheduled;
+	private volatile boolean idle;
+	/**
+	 * The {@link System#nanoTime()} the timer thread parks until, so
+	 * scheduling only wakes it up for timeouts that expire before that.
+	 */
+	private volatile long wakeup;
+	private final Thread thread;
+	/**
+	 * Only touched by the timer thread: the buckets, the next tick to
+	 * expire, counted from <code>start</code>, and the amount of timeouts
+	 * in the buckets, including the cancelled ones not dropped yet.
+	 */
+	private final Timeout[] wheel = new Timeout[WHEEL_SIZE];
+	private final long start = System.nanoTime();
+	private long tick;
+	private int count;
+
+	private TaskTimer() {
+		this.thread = new Thread(this::loop, "task-timer");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * Run the action once the delay has passed.
+	 *
+	 * @param action The action to run.
+	 * @param delay  The delay in nanoseconds.
+	 * @return A handle to cancel the timeout.
+	 */
+	static Timeout schedule(Runnable action, long delay) {
+		final Timeout timeout = new Timeout(action, System.nanoTime() + delay);
+		TIMER.push(timeout);
+		return timeout;
+	}
+
+	private void push(Timeout timeout) {
+		Timeout head;
+		do {
+			head = this.scheduled;
+			timeout.next = head;
+		} while (!SCHEDULED.compareAndSet(this, head, timeout));
+		if (this.idle || timeout.deadline - this.wakeup < 0) {
+			LockSupport.unpark(this.thread);
+		}
+	}
+
+	private void loop() {
+		while (true) {
+			if (this.count == 0 && this.scheduled == null) {
+				this.idle = true;
+				if (this.scheduled == null) {
+					LockSupport.park(this);
+				}
+				this.idle = false;
+				// The wheel is empty, so it can skip ahead to the current tick.
+				this.tick = Math.max(this.tick, (System.nanoTime() - this.start) / TICK);
+				continue;
+			}
+			this.transfer();
+			if (this.count == 0) continue;
+			// The ticks before the next bucket that holds a timeout have
+			// nothing to expire, so the timer thread sleeps through them.
+			final long next = this.nextTick();
+			final long deadline = this.start + (next + 1) * TICK;
+			this.wakeup = deadline;
+			long now;
+			while ((now = System.nanoTime()) - deadline < 0 && this.scheduled == null) {
+				LockSupport.parkNanos(this, deadline - now);
+			}
+			// Woken up by a new timeout, which may expire before that tick.
+			if (now - deadline < 0) continue;
+			this.tick = next;
+			this.transfer();
+			this.expire((int) (next & (WHEEL_SIZE - 1)));
+			this.tick++;
+		}
+	}
+
+	/**
+	 * @return The first tick, from the next tick to expire on, whose bucket
+	 * holds a timeout. There is one within a turn of the wheel as long as
+	 * the wheel is not empty.
+	 */
+	private long nextTick() {
+		long tick = this.tick;
+		while (this.wheel[(int) (tick & (WHEEL_SIZE - 1))] == null) {
+			tick++;
+		}
+		return tick;
+	}
+
+	/**
+	 * Move the scheduled timeouts into the bucket of the tick they expire
+	 * at. A timeout is only ever put into the bucket of a tick that is not
+	 * expired yet, so none fire early and the late ones fire on this tick.
+	 */
+	private void transfer() {
+		Timeout timeout = (Timeout) SCHEDULED.getAndSet(this, (Timeout) null);
+		while (timeout != null) {
+			final Timeout next = timeout.next;
+			if (timeout.state == Timeout.PENDING) {
+				final long ticks = Math.max(this.tick, Math.floorDiv(timeout.deadline - this.start - 1, TICK));
+				final int bucket = (int) (ticks & (WHEEL_SIZE - 1));
+				timeout.rounds = (ticks - this.tick) / WHEEL_SIZE;
+				timeout.next = this.wheel[bucket];
+				this.wheel[bucket] = timeout;
+				this.count++;
+			}
+			timeout = next;
+		}
+	}
+
+	private void expire(int bucket) {
+		Timeout previous = null;
+		Timeout timeout = this.wheel[bucket];
+		while (timeout != null) {
+			final Timeout next = timeout.next;
+			if (timeout.state == Timeout.PENDING && timeout.rounds > 0) {
+				timeout.rounds--;
+				previous = timeout;
+			} else {
+				if (previous == null) {
+					this.wheel[bucket] = next;
+				} else {
+					previous.next = next;
+				}
+				timeout.next = null;
+				this.count--;
+				timeout.fire();
+			}
+			timeout = next;
+		}
+	}
+
+	static final class Timeout {
+		private static final int PENDING = 0;
+		private static final int CANCELLED = 1;
+		private static final int FIRED = 2;
+
+		private final long deadline;
+		private Runnable action;
+		private volatile int state;
+		private Timeout next;
+		private long rounds;
+
+		private Timeout(Runnable action, long deadline) {
+			this.action = action;
+			this.deadline = deadline;
+		}
+
+		/**
+		 * @return The {@link System#nanoTime()} at which the timeout fires.
+		 */
+		long deadline() {
+			return this.deadline;
+		}
+
+		void cancel() {
+			if (STATE.compareAndSet(this, PENDING, CANCELLED)) {
+				this.action = null;
+			}
+		}
+
+		private void fire() {
+			if (!STATE.compareAndSet(this, PENDING, FIRED)) return;
+			final Runnable action = this.action;
+			this.action = null;
+			try {
+				action.run();
+			} catch (RuntimeException ignored) {
+				// A failing action must not stop the timer for everyone else.
+			}
+		}
+	}
+
+}
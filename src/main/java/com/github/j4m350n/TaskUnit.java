@@ -0,0 +1,12 @@
+package com.github.j4m350n;
+
+/**
+ * <p>
+ * The value of a task that is only run for its side effects. There is a
+ * single shared instance, so such tasks never allocate a value, see
+ * {@link Task#done()} and {@link TaskResult#unit()}.
+ * </p>
+ */
+public enum TaskUnit {
+	INSTANCE
+}
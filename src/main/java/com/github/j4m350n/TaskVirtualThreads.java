@@ -0,0 +1,28 @@
+package com.github.j4m350n;
+
+import java.util.concurrent.Executor;
+
+/**
+ * <p>
+ * Creates the executor behind {@link TaskScheduler#getVirtualThreadExecutor()}.
+ * </p>
+ * <p>
+ * This is the Java 17 version, which has no virtual threads. On Java 21 and
+ * newer the multi-release jar replaces this class with one that starts a new
+ * virtual thread for every action.
+ * </p>
+ */
+final class TaskVirtualThreads {
+
+	private TaskVirtualThreads() {
+	}
+
+	static boolean isSupported() {
+		return false;
+	}
+
+	static Executor createExecutor() {
+		return null;
+	}
+
+}
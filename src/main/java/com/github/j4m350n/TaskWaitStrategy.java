@@ -0,0 +1,148 @@
+package com.github.j4m350n;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Controls how a thread waits in {@link Task#await()} for a task that is
+ * not complete yet. The thread first spins with {@link Thread#onSpinWait()},
+ * then yields, and only then parks. Spinning avoids the cost of parking
+ * and waking up for tasks that complete within a few microseconds.
+ * </p>
+ * <p>
+ * The strategy adapts to the workload. Tasks keep a moving average of how
+ * long a sample of their actions take, and as long as that average is
+ * above the spin threshold, waiting threads park right away instead of
+ * burning a core.
+ * </p>
+ *
+ * <pre>{@code
+ *   TaskWaitStrategy.setSpinIterations(1_000);
+ *   TaskWaitStrategy.setYieldIterations(20);
+ *   TaskWaitStrategy.setSpinThreshold(Duration.ofNanos(20_000));
+ * }</pre>
+ */
+public final class TaskWaitStrategy {
+
+	private static volatile int spinIterations = 200;
+	private static volatile int yieldIterations = 10;
+	private static volatile long spinThreshold = TimeUnit.MICROSECONDS.toNanos(50);
+	private static volatile boolean adaptive = true;
+	/**
+	 * Every worker only times one in this many of the actions it runs.
+	 */
+	static final int SAMPLE_INTERVAL = 16;
+	/**
+	 * Exponentially weighted moving average of recent action durations in
+	 * nanoseconds. Updates are not atomic, a lost sample only makes the
+	 * average slightly less accurate. A sample that leaves the average as
+	 * it was is not written back, so a steady workload does not keep
+	 * bouncing the field between cores.
+	 */
+	private static volatile long averageDuration;
+
+	private TaskWaitStrategy() {
+	}
+
+	public static int getSpinIterations() {
+		return spinIterations;
+	}
+
+	/**
+	 * @param spinIterations How many times to spin before yielding, or
+	 *                       <code>0</code> to never spin.
+	 */
+	public static void setSpinIterations(int spinIterations) {
+		if (spinIterations < 0) {
+			throw new IllegalArgumentException("Could not set the spin iterations: the iterations cannot be negative!");
+		}
+		TaskWaitStrategy.spinIterations = spinIterations;
+	}
+
+	public static int getYieldIterations() {
+		return yieldIterations;
+	}
+
+	/**
+	 * @param yieldIterations How many times to yield before parking, or
+	 *                        <code>0</code> to never yield.
+	 */
+	public static void setYieldIterations(int yieldIterations) {
+		if (yieldIterations < 0) {
+			throw new IllegalArgumentException("Could not set the yield iterations: the iterations cannot be negative!");
+		}
+		TaskWaitStrategy.yieldIterations = yieldIterations;
+	}
+
+	public static Duration getSpinThreshold() {
+		return Duration.ofNanos(spinThreshold);
+	}
+
+	/**
+	 * @param spinThreshold Only spin and yield while recent actions take
+	 *                      less than this on average.
+	 */
+	public static void setSpinThreshold(Duration spinThreshold) {
+		if (spinThreshold.isNegative()) {
+			throw new IllegalArgumentException("Could not set the spin threshold: the threshold cannot be negative!");
+		}
+		TaskWaitStrategy.spinThreshold = spinThreshold.toNanos();
+	}
+
+	public static boolean isAdaptive() {
+		return adaptive;
+	}
+
+	/**
+	 * @param adaptive Whether to skip spinning while recent actions are
+	 *                 slower than the spin threshold. When disabled,
+	 *                 waiting threads always spin and yield first.
+	 */
+	public static void setAdaptive(boolean adaptive) {
+		TaskWaitStrategy.adaptive = adaptive;
+	}
+
+	/**
+	 * @return The moving average of recent action durations.
+	 */
+	public static Duration getAverageDuration() {
+		return Duration.ofNanos(averageDuration);
+	}
+
+	/**
+	 * Feed the duration of a completed action into the moving average.
+	 *
+	 * @param duration The duration in nanoseconds.
+	 */
+	static void record(long duration) {
+		final long average = averageDuration;
+		final long next = average + ((duration - average) >> 3);
+		if (next != average) {
+			averageDuration = next;
+		}
+	}
+
+	/**
+	 * Spin and then yield until the task completes, as configured.
+	 *
+	 * @param task The task to wait for.
+	 * @return Whether the task completed, <code>false</code> if the caller
+	 * should park.
+	 */
+	static boolean spin(Task<?> task) {
+		if (adaptive && averageDuration > spinThreshold) {
+			return task.isDone();
+		}
+		for (int i = spinIterations; i > 0; i--) {
+			if (task.isDone()) return true;
+			Thread.onSpinWait();
+		}
+		for (int i = yieldIterations; i > 0; i--) {
+			if (task.isDone()) return true;
+			Thread.yield();
+		}
+		return task.isDone();
+	}
+
+}
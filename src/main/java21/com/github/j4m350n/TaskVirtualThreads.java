@@ -0,0 +1,28 @@
+package com.github.j4m350n;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * <p>
+ * Creates the executor behind {@link TaskScheduler#getVirtualThreadExecutor()}.
+ * </p>
+ * <p>
+ * This is the Java 21 version, packaged under <code>META-INF/versions/21</code>
+ * of the multi-release jar. Every action runs on its own virtual thread.
+ * </p>
+ */
+final class TaskVirtualThreads {
+
+	private TaskVirtualThreads() {
+	}
+
+	static boolean isSupported() {
+		return true;
+	}
+
+	static Executor createExecutor() {
+		return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("task-virtual-", 1).factory());
+	}
+
+}
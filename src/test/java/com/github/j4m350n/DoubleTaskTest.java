@@ -0,0 +1,29 @@
+package com.github.j4m350n;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class DoubleTaskTest {
+
+	@Test
+	public void mapsWithoutBoxing() {
+		DoubleTask task = new DoubleTask(() -> 1.5);
+		for (int i = 0; i < 10; i++) {
+			task = task.mapDouble(value -> value * 2);
+		}
+		Assertions.assertEquals(1536.0, task.awaitDouble());
+		Assertions.assertEquals(0.25, DoubleTask.complete(0.25).await());
+	}
+
+	@Test
+	public void recoversWithOr() {
+		double value = new DoubleTask(() -> {
+			throw new Exception("hello");
+		})
+			.mapDouble(previous -> previous + 1)
+			.orDouble(exception -> Double.NaN)
+			.awaitDouble();
+		Assertions.assertTrue(Double.isNaN(value));
+	}
+
+}
@@ -0,0 +1,109 @@
+package com.github.j4m350n;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+class IntTaskTest {
+
+	@Test
+	public void completesWithPrimitiveValue() {
+		IntTask task = IntTask.complete(123);
+		Assertions.assertTrue(task.isDone());
+		Assertions.assertEquals(123, task.awaitInt());
+		Assertions.assertEquals(123, task.await());
+		Assertions.assertTrue(task.mapIntNow(value -> value + 1).isDone());
+		Assertions.assertEquals(124, task.mapInt(value -> value + 1).awaitInt());
+
+		IntTask failed = IntTask.failInt(new Exception("hello"));
+		Assertions.assertTrue(failed.isDone());
+		Assertions.assertThrows(RuntimeException.class, failed::awaitInt, "hello");
+	}
+
+	@Test
+	public void runsAction() {
+		IntTask task = new IntTask(() -> {
+			Thread.sleep(100);
+			return 123;
+		});
+		Assertions.assertFalse(task.isDone());
+		Assertions.assertEquals(123, task.awaitInt());
+
+		IntTask failing = new IntTask(() -> {
+			throw new Exception("hello");
+		});
+		Assertions.assertThrows(RuntimeException.class, failing::awaitInt, "hello");
+	}
+
+	@Test
+	public void mapsWithoutBoxing() {
+		IntTask completed = IntTask.complete(1);
+		for (int i = 0; i < 100; i++) {
+			completed = completed.mapInt(value -> value + 1);
+		}
+		Assertions.assertEquals(101, completed.awaitInt());
+
+		IntTask pending = new IntTask(() -> {
+			Thread.sleep(50);
+			return 1;
+		});
+		for (int i = 0; i < 100; i++) {
+			pending = pending.mapInt(value -> value + 1);
+		}
+		Assertions.assertEquals(101, pending.awaitInt());
+
+		Task<String> mapped = IntTask.complete(3).map(value -> "#" + value);
+		Assertions.assertEquals("#3", mapped.await());
+	}
+
+	@Test
+	public void recoversWithOr() {
+		IntTask completed = IntTask.complete(1)
+			.mapInt(value -> {
+				throw new Exception("hello");
+			})
+			.mapInt(value -> value + 1)
+			.orInt(exception -> -1);
+		Assertions.assertEquals(-1, completed.awaitInt());
+
+		IntTask pending = new IntTask(() -> {
+			Thread.sleep(50);
+			throw new Exception("hello");
+		})
+			.mapInt(value -> value + 1)
+			.orInt(exception -> -1);
+		Assertions.assertEquals(-1, pending.awaitInt());
+
+		IntTask successful = IntTask.complete(5);
+		Assertions.assertSame(successful, successful.orInt(exception -> -1));
+	}
+
+	@Test
+	public void cancelsLikeTask() {
+		IntTask task = new IntTask(() -> {
+			Thread.sleep(10_000);
+			return 1;
+		});
+		IntTask next = task.mapInt(value -> value + 1).orInt(exception -> -1);
+		Assertions.assertTrue(task.cancel());
+		Assertions.assertTrue(task.isCancelled());
+		RuntimeException exception = Assertions.assertThrows(RuntimeException.class, next::awaitInt);
+		Assertions.assertInstanceOf(CancellationException.class, exception.getCause());
+	}
+
+	@Test
+	public void worksWithTask() {
+		List<Integer> values = Task.all(IntTask.complete(1), new IntTask(() -> 2), IntTask.complete(3)).await();
+		Assertions.assertEquals(List.of(1, 2, 3), values);
+
+		Integer value = Task.complete(2)
+			.and(previous -> new IntTask(() -> previous * 2))
+			.timeout(Duration.ofSeconds(5))
+			.await();
+		Assertions.assertEquals(4, value);
+	}
+
+}
@@ -0,0 +1,27 @@
+package com.github.j4m350n;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class LongTaskTest {
+
+	@Test
+	public void mapsWithoutBoxing() {
+		LongTask task = new LongTask(() -> Integer.MAX_VALUE);
+		for (int i = 0; i < 10; i++) {
+			task = task.mapLong(value -> value + 1);
+		}
+		Assertions.assertEquals(Integer.MAX_VALUE + 10L, task.awaitLong());
+		Assertions.assertEquals(Integer.MAX_VALUE + 11L, LongTask.complete(Integer.MAX_VALUE + 11L).await());
+	}
+
+	@Test
+	public void recoversWithOr() {
+		long value = LongTask.failLong(new Exception("hello"))
+			.mapLong(previous -> previous + 1)
+			.orLong(exception -> -1L)
+			.awaitLong();
+		Assertions.assertEquals(-1L, value);
+	}
+
+}
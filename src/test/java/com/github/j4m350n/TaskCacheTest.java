@@ -0,0 +1,189 @@
+package com.github.j4m350n;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class TaskCacheTest {
+
+	@Test
+	public void coalescesConcurrentLoads() throws InterruptedException {
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		TaskCache<Integer, String> cache = new TaskCache<>(key -> {
+			loads.incrementAndGet();
+			release.await();
+			return "#" + key;
+		});
+		List<Task<String>> tasks = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			tasks.add(cache.get(1));
+		}
+		Task<String> other = cache.get(2);
+		Assertions.assertEquals(2, cache.size());
+		release.countDown();
+		for (Task<String> task : tasks) {
+			Assertions.assertEquals("#1", task.await());
+		}
+		Assertions.assertEquals("#2", other.await());
+		Assertions.assertEquals(2, loads.get());
+	}
+
+	@Test
+	public void forgetsCompletedLoads() throws InterruptedException {
+		AtomicInteger loads = new AtomicInteger();
+		TaskCache<Integer, Integer> cache = new TaskCache<>(key -> loads.incrementAndGet());
+		Assertions.assertEquals(1, cache.get(1).await());
+		while (cache.size() > 0) Thread.sleep(1);
+		Assertions.assertEquals(2, cache.get(1).await());
+
+		Exception e = new Exception("hello");
+		TaskCache<Integer, Integer> failing = new TaskCache<>(key -> {
+			throw e;
+		});
+		Assertions.assertEquals(e, failing.get(1).waitForResult().exception);
+	}
+
+	@Test
+	public void cancelsLoadOnceEveryCallerGaveUp() throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(1);
+		TaskCache<Integer, Integer> cache = new TaskCache<>(key -> {
+			started.countDown();
+			Thread.sleep(10_000);
+			return key;
+		});
+		Task<Integer> first = cache.get(1);
+		Task<Integer> second = cache.get(1);
+		started.await();
+		Assertions.assertTrue(first.cancel());
+		Assertions.assertFalse(second.isDone());
+		Assertions.assertEquals(1, cache.size());
+		Assertions.assertTrue(second.cancel());
+		while (cache.size() > 0) Thread.sleep(1);
+	}
+
+	@Test
+	public void keepsValuesWithPolicy() {
+		AtomicInteger loads = new AtomicInteger();
+		TaskCache<Integer, Integer> cache = new TaskCache<>(key -> {
+			loads.incrementAndGet();
+			return key * 2;
+		}, TaskCachePolicy.unbounded());
+		Assertions.assertEquals(2, cache.get(1).await());
+		Task<Integer> cached = cache.get(1);
+		Assertions.assertTrue(cached.isDone());
+		Assertions.assertSame(cached, cache.get(1));
+		Assertions.assertEquals(1, loads.get());
+
+		cache.invalidate(1);
+		Assertions.assertEquals(2, cache.get(1).await());
+		Assertions.assertEquals(2, loads.get());
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsed() {
+		AtomicInteger loads = new AtomicInteger();
+		TaskCache<Integer, Integer> cache = new TaskCache<>(key -> {
+			loads.incrementAndGet();
+			return key;
+		}, TaskCachePolicy.maximumSize(2));
+		cache.get(1).await();
+		cache.get(2).await();
+		cache.get(1).await();
+		cache.get(3).await();
+		Assertions.assertEquals(2, cache.size());
+		Assertions.assertEquals(3, loads.get());
+		cache.get(1).await();
+		Assertions.assertEquals(3, loads.get());
+		cache.get(2).await();
+		Assertions.assertEquals(4, loads.get());
+	}
+
+	@Test
+	public void expiresAfterWrite() throws InterruptedException {
+		AtomicInteger loads = new AtomicInteger();
+		TaskCache<Integer, Integer> cache = new TaskCache<>(
+			key -> loads.incrementAndGet(),
+			TaskCachePolicy.unbounded().withExpireAfterWrite(Duration.ofMillis(50))
+		);
+		Assertions.assertEquals(1, cache.get(1).await());
+		Assertions.assertEquals(1, cache.get(1).await());
+		long start = System.nanoTime();
+		while (cache.size() > 0) Thread.sleep(1);
+		Assertions.assertTrue(System.nanoTime() - start < Duration.ofSeconds(1).toNanos());
+		Assertions.assertEquals(2, cache.get(1).await());
+	}
+
+	@Test
+	public void expiresAfterAccess() throws InterruptedException {
+		AtomicInteger loads = new AtomicInteger();
+		TaskCache<Integer, Integer> cache = new TaskCache<>(
+			key -> loads.incrementAndGet(),
+			TaskCachePolicy.unbounded().withExpireAfterAccess(Duration.ofMillis(100))
+		);
+		for (int i = 0; i < 10; i++) {
+			Assertions.assertEquals(1, cache.get(1).await());
+			Thread.sleep(20);
+		}
+		Thread.sleep(200);
+		Assertions.assertEquals(0, cache.size());
+		Assertions.assertEquals(2, cache.get(1).await());
+	}
+
+	@Test
+	public void refreshesAheadOfExpiry() throws InterruptedException {
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch reloading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		TaskCache<Integer, Integer> cache = new TaskCache<>(key -> {
+			if (loads.incrementAndGet() == 2) {
+				reloading.countDown();
+				release.await();
+			}
+			return loads.get();
+		}, TaskCachePolicy.unbounded().withExpireAfterWrite(Duration.ofSeconds(5)).withRefreshAfterWrite(Duration.ofMillis(50)));
+		Assertions.assertEquals(1, cache.get(1).await());
+		Thread.sleep(80);
+		Assertions.assertEquals(1, cache.get(1).await());
+		reloading.await();
+		Assertions.assertEquals(1, cache.get(1).await());
+		release.countDown();
+		while (cache.get(1).await() != 2) Thread.sleep(1);
+		Assertions.assertEquals(2, loads.get());
+	}
+
+	@Test
+	public void doesNotCacheFailures() {
+		AtomicInteger loads = new AtomicInteger();
+		TaskCache<Integer, Integer> cache = new TaskCache<>(key -> {
+			if (loads.incrementAndGet() == 1) throw new Exception("hello");
+			return key;
+		}, TaskCachePolicy.unbounded());
+		Assertions.assertTrue(cache.get(1).waitForResult().didThrow);
+		Assertions.assertEquals(1, cache.get(1).await());
+		Assertions.assertEquals(1, cache.get(1).await());
+		Assertions.assertEquals(2, loads.get());
+	}
+
+	@Test
+	public void singleFlight() throws InterruptedException {
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		TaskAction<Integer> load = () -> {
+			release.await();
+			return loads.incrementAndGet();
+		};
+		Task<Integer> first = Task.singleFlight("single-flight-test", load);
+		Task<Integer> second = Task.singleFlight("single-flight-test", load);
+		release.countDown();
+		Assertions.assertEquals(1, first.await());
+		Assertions.assertEquals(1, second.await());
+		Assertions.assertEquals(1, loads.get());
+	}
+
+}
@@ -0,0 +1,144 @@
+package com.github.j4m350n;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+class TaskPublisherTest {
+
+	@Test
+	public void publishesInOrder() throws InterruptedException {
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		Iterable<Task<Integer>> tasks = () -> IntStream.range(0, 50).mapToObj(i -> new Task<>(() -> {
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			Thread.sleep((i * 7) % 5);
+			running.decrementAndGet();
+			return i;
+		})).iterator();
+		Collector<Integer> collector = new Collector<>(Long.MAX_VALUE);
+		TaskPublisher.ordered(tasks, 4).subscribe(collector);
+		Assertions.assertTrue(collector.done.await(5, TimeUnit.SECONDS));
+		Assertions.assertNull(collector.error);
+		Assertions.assertEquals(IntStream.range(0, 50).boxed().toList(), collector.values());
+		Assertions.assertTrue(maxRunning.get() <= 4);
+	}
+
+	@Test
+	public void publishesAsTasksComplete() throws InterruptedException {
+		List<Task<Integer>> tasks = List.of(
+			new Task<>(() -> {
+				Thread.sleep(200);
+				return 1;
+			}),
+			Task.complete(2)
+		);
+		Collector<Integer> collector = new Collector<>(Long.MAX_VALUE);
+		TaskPublisher.unordered(tasks, 2).subscribe(collector);
+		Assertions.assertTrue(collector.done.await(5, TimeUnit.SECONDS));
+		Assertions.assertEquals(List.of(2, 1), collector.values());
+	}
+
+	@Test
+	public void pullsOnlyWhatIsRequested() throws InterruptedException {
+		AtomicInteger pulled = new AtomicInteger();
+		Iterable<Task<Integer>> tasks = () -> new Iterator<>() {
+			@Override
+			public boolean hasNext() {
+				return true;
+			}
+
+			@Override
+			public Task<Integer> next() {
+				return Task.complete(pulled.incrementAndGet());
+			}
+		};
+		Collector<Integer> collector = new Collector<>(2);
+		TaskPublisher.ordered(tasks, 8).subscribe(collector);
+		Thread.sleep(50);
+		Assertions.assertEquals(List.of(1, 2), collector.values());
+		Assertions.assertEquals(2, pulled.get());
+
+		collector.subscription.request(3);
+		Thread.sleep(50);
+		Assertions.assertEquals(List.of(1, 2, 3, 4, 5), collector.values());
+		Assertions.assertEquals(5, pulled.get());
+		collector.subscription.cancel();
+	}
+
+	@Test
+	public void failsWithFirstFailedTask() throws InterruptedException {
+		Exception e = new Exception("hello");
+		Task<Integer> slow = new Task<>(() -> {
+			Thread.sleep(10_000);
+			return 1;
+		});
+		Collector<Integer> collector = new Collector<>(Long.MAX_VALUE);
+		TaskPublisher.unordered(List.of(slow, Task.<Integer>fail(e)), 2).subscribe(collector);
+		Assertions.assertTrue(collector.done.await(5, TimeUnit.SECONDS));
+		Assertions.assertEquals(e, collector.error);
+		slow.waitForResult();
+		Assertions.assertTrue(slow.isCancelled());
+	}
+
+	@Test
+	public void cancelCancelsTasksInFlight() throws InterruptedException {
+		Task<Integer> slow = new Task<>(() -> {
+			Thread.sleep(10_000);
+			return 1;
+		});
+		Collector<Integer> collector = new Collector<>(Long.MAX_VALUE);
+		TaskPublisher.ordered(List.of(slow), 1).subscribe(collector);
+		collector.subscription.cancel();
+		slow.waitForResult();
+		Assertions.assertTrue(slow.isCancelled());
+		Assertions.assertEquals(1, collector.done.getCount());
+	}
+
+	private static final class Collector<T> implements Flow.Subscriber<T> {
+		final CountDownLatch done = new CountDownLatch(1);
+		private final List<T> values = new ArrayList<>();
+		private final long initialRequest;
+		volatile Flow.Subscription subscription;
+		volatile Throwable error;
+
+		Collector(long initialRequest) {
+			this.initialRequest = initialRequest;
+		}
+
+		synchronized List<T> values() {
+			return new ArrayList<>(this.values);
+		}
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+			subscription.request(this.initialRequest);
+		}
+
+		@Override
+		public synchronized void onNext(T item) {
+			this.values.add(item);
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			this.error = throwable;
+			this.done.countDown();
+		}
+
+		@Override
+		public void onComplete() {
+			this.done.countDown();
+		}
+	}
+
+}
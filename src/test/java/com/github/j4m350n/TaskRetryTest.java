@@ -0,0 +1,121 @@
+package com.github.j4m350n;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class TaskRetryTest {
+
+	private static final TaskRetryPolicy FAST = TaskRetryPolicy.attempts(3)
+		.withBackoff(Duration.ofMillis(1), Duration.ofMillis(10));
+
+	@Test
+	public void retriesUntilSuccess() {
+		AtomicInteger attempts = new AtomicInteger();
+		Task<Integer> task = Task.retrying(() -> {
+			if (attempts.incrementAndGet() < 3) throw new IOException("attempt " + attempts.get());
+			return 123;
+		}, FAST);
+		Assertions.assertEquals(123, task.await());
+		Assertions.assertEquals(3, attempts.get());
+	}
+
+	@Test
+	public void failsWithLastException() {
+		AtomicInteger attempts = new AtomicInteger();
+		TaskResult<Integer> result = Task.<Integer>retrying(() -> {
+			throw new IOException("attempt " + attempts.incrementAndGet());
+		}, FAST).waitForResult();
+		Assertions.assertEquals(3, attempts.get());
+		Assertions.assertTrue(result.didThrow);
+		Assertions.assertEquals("attempt 3", result.exception.getMessage());
+		Assertions.assertEquals("attempt 2", result.exception.getSuppressed()[0].getMessage());
+	}
+
+	@Test
+	public void onlyRetriesMatchingExceptions() {
+		AtomicInteger attempts = new AtomicInteger();
+		TaskResult<Integer> result = Task.<Integer>retrying(() -> {
+			attempts.incrementAndGet();
+			throw new IllegalStateException("hello");
+		}, FAST.retryOn(exception -> exception instanceof IOException)).waitForResult();
+		Assertions.assertEquals(1, attempts.get());
+		Assertions.assertInstanceOf(IllegalStateException.class, result.exception);
+	}
+
+	@Test
+	public void backoffDoesNotHoldWorker() throws InterruptedException {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			AtomicInteger attempts = new AtomicInteger();
+			Task<Integer> retried = Task.retrying(() -> {
+				if (attempts.incrementAndGet() == 1) throw new IOException("hello");
+				return 1;
+			}, TaskRetryPolicy.attempts(2).withBackoff(Duration.ofMillis(500), Duration.ofMillis(500)), executor);
+			while (attempts.get() == 0) Thread.sleep(1);
+
+			long start = System.nanoTime();
+			Assertions.assertEquals(2, new Task<>(() -> 2, executor).await());
+			Assertions.assertTrue(System.nanoTime() - start < Duration.ofMillis(400).toNanos());
+			Assertions.assertFalse(retried.isDone());
+			Assertions.assertEquals(1, retried.await());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void cancelStopsRetrying() throws InterruptedException {
+		AtomicInteger attempts = new AtomicInteger();
+		Task<Integer> task = Task.retrying(() -> {
+			attempts.incrementAndGet();
+			throw new IOException("hello");
+		}, TaskRetryPolicy.attempts(10).withBackoff(Duration.ofMillis(100), Duration.ofMillis(100)));
+		while (attempts.get() == 0) Thread.sleep(1);
+		Assertions.assertTrue(task.cancel());
+		Thread.sleep(300);
+		Assertions.assertEquals(1, attempts.get());
+	}
+
+	@Test
+	public void retriesStepAfterTask() {
+		AtomicInteger attempts = new AtomicInteger();
+		Task<String> task = Task.complete(5).retry(value -> {
+			if (attempts.incrementAndGet() < 2) throw new IOException("hello");
+			return "#" + value;
+		}, FAST);
+		Assertions.assertEquals("#5", task.await());
+		Assertions.assertEquals(2, attempts.get());
+
+		Exception e = new Exception("hello");
+		Assertions.assertEquals(e, Task.<Integer>fail(e).retry(value -> value, FAST).waitForResult().exception);
+	}
+
+	@Test
+	public void backoffGrowsUpToMaximum() {
+		TaskRetryPolicy policy = TaskRetryPolicy.attempts(10)
+			.withBackoff(Duration.ofMillis(10), Duration.ofMillis(50))
+			.withMultiplier(2);
+		Assertions.assertEquals(Duration.ofMillis(10).toNanos(), policy.backoff(1));
+		Assertions.assertEquals(Duration.ofMillis(20).toNanos(), policy.backoff(2));
+		Assertions.assertEquals(Duration.ofMillis(40).toNanos(), policy.backoff(3));
+		Assertions.assertEquals(Duration.ofMillis(50).toNanos(), policy.backoff(4));
+
+		TaskRetryPolicy jittered = policy.withJitter(0.5);
+		for (int i = 0; i < 100; i++) {
+			long backoff = jittered.backoff(2);
+			Assertions.assertTrue(backoff > Duration.ofMillis(10).toNanos() - 1);
+			Assertions.assertTrue(backoff <= Duration.ofMillis(20).toNanos());
+		}
+
+		Assertions.assertThrows(IllegalArgumentException.class, () -> TaskRetryPolicy.attempts(0));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> policy.withJitter(2));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> policy.withMultiplier(0.5));
+	}
+
+}
@@ -0,0 +1,93 @@
+package com.github.j4m350n;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+class TaskStackTracesTest {
+
+	private static Exception failedTaskException() {
+		Task<Integer> task = new Task<>(() -> {
+			throw new Exception("hello");
+		});
+		return task.waitForResult().exception;
+	}
+
+	private static boolean containsFrame(Exception exception, String methodName) {
+		return Arrays.stream(exception.getStackTrace())
+			.anyMatch(frame -> frame.getMethodName().equals(methodName));
+	}
+
+	private static void withMode(TaskStackTraces.Mode mode, Runnable runnable) {
+		TaskStackTraces.Mode previous = TaskStackTraces.getMode();
+		TaskStackTraces.setMode(mode);
+		try {
+			runnable.run();
+		} finally {
+			TaskStackTraces.setMode(previous);
+		}
+	}
+
+	@Test
+	public void fullModeAppendsCallerStack() {
+		withMode(TaskStackTraces.Mode.FULL, () -> Assertions.assertTrue(
+			containsFrame(failedTaskException(), "failedTaskException")
+		));
+	}
+
+	@Test
+	public void offModeDoesNotAppendCallerStack() {
+		withMode(TaskStackTraces.Mode.OFF, () -> Assertions.assertFalse(
+			containsFrame(failedTaskException(), "failedTaskException")
+		));
+	}
+
+	@Test
+	public void sampledModeAppendsCallerStackAtRateOne() {
+		int previous = TaskStackTraces.getSampleRate();
+		TaskStackTraces.setSampleRate(1);
+		try {
+			withMode(TaskStackTraces.Mode.SAMPLED, () -> Assertions.assertTrue(
+				containsFrame(failedTaskException(), "failedTaskException")
+			));
+		} finally {
+			TaskStackTraces.setSampleRate(previous);
+		}
+	}
+
+	@Test
+	public void walkerModeLimitsFrames() {
+		int previous = TaskStackTraces.getFrameLimit();
+		TaskStackTraces.setFrameLimit(1);
+		try {
+			withMode(TaskStackTraces.Mode.WALKER, () -> {
+				Exception withCaller = failedTaskException();
+				Assertions.assertTrue(containsFrame(withCaller, "failedTaskException"));
+				Assertions.assertFalse(containsFrame(withCaller, "walkerModeLimitsFrames"));
+			});
+		} finally {
+			TaskStackTraces.setFrameLimit(previous);
+		}
+	}
+
+	@Test
+	public void invalidConfiguration() {
+		Assertions.assertThrows(
+			NullPointerException.class,
+			() -> TaskStackTraces.setMode(null),
+			"Could not set the stack trace mode: the mode cannot be null!"
+		);
+		Assertions.assertThrows(
+			IllegalArgumentException.class,
+			() -> TaskStackTraces.setSampleRate(0),
+			"Could not set the stack trace sample rate: the rate must be at least 1!"
+		);
+		Assertions.assertThrows(
+			IllegalArgumentException.class,
+			() -> TaskStackTraces.setFrameLimit(0),
+			"Could not set the stack trace frame limit: the limit must be at least 1!"
+		);
+	}
+
+}
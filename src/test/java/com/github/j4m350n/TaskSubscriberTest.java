@@ -0,0 +1,57 @@
+package com.github.j4m350n;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+class TaskSubscriberTest {
+
+	@Test
+	public void runsActionsWithBoundedConcurrency() {
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		Set<Integer> handled = ConcurrentHashMap.newKeySet();
+		TaskSubscriber<Integer> subscriber = new TaskSubscriber<>(item -> {
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			Thread.sleep(1);
+			handled.add(item);
+			running.decrementAndGet();
+		}, 4);
+		try (SubmissionPublisher<Integer> publisher = new SubmissionPublisher<>()) {
+			publisher.subscribe(subscriber);
+			for (int i = 0; i < 200; i++) {
+				publisher.submit(i);
+			}
+		}
+		Assertions.assertSame(TaskUnit.INSTANCE, subscriber.completion().await());
+		Assertions.assertEquals(200, handled.size());
+		Assertions.assertTrue(maxRunning.get() <= 4);
+	}
+
+	@Test
+	public void failsOnFirstFailedAction() {
+		Exception e = new Exception("hello");
+		TaskSubscriber<Integer> subscriber = new TaskSubscriber<>(item -> {
+			if (item == 3) throw e;
+		}, 2);
+		Iterable<Task<Integer>> tasks = () -> IntStream.range(0, 1_000).mapToObj(Task::complete).iterator();
+		TaskPublisher.ordered(tasks, 2).subscribe(subscriber);
+		Assertions.assertEquals(e, subscriber.completion().waitForResult().exception);
+	}
+
+	@Test
+	public void consumesTaskPublisher() {
+		AtomicInteger sum = new AtomicInteger();
+		TaskSubscriber<Integer> subscriber = new TaskSubscriber<>(sum::addAndGet, 8);
+		Iterable<Task<Integer>> tasks = () -> IntStream.rangeClosed(1, 100).mapToObj(i -> new Task<>(() -> i)).iterator();
+		TaskPublisher.unordered(tasks, 8).subscribe(subscriber);
+		subscriber.completion().await();
+		Assertions.assertEquals(5050, sum.get());
+	}
+
+}
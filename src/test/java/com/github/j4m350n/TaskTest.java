@@ -3,8 +3,25 @@ package com.github.j4m350n;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
 
 class TaskTest {
 
@@ -12,19 +29,19 @@ class TaskTest {
 	public void constructorAcceptsTaskResult() {
 		Assertions.assertDoesNotThrow(() -> {
 			Task<Integer> task = new Task<>(TaskResult.success(0));
-			Assertions.assertNotNull(task._result.get());
+			Assertions.assertTrue(task.isDone());
 			Assertions.assertEquals(0, task.await());
 		});
 
 		Assertions.assertDoesNotThrow(() -> {
 			Task<Integer> task = Task.complete(0);
-			Assertions.assertNotNull(task._result.get());
+			Assertions.assertTrue(task.isDone());
 			Assertions.assertEquals(0, task.await());
 		});
 
 		Assertions.assertDoesNotThrow(() -> {
 			Task<Integer> task = new Task<>(TaskResult.failure(new Exception("hello")));
-			Assertions.assertNotNull(task._result.get());
+			Assertions.assertTrue(task.isDone());
 			Assertions.assertThrows(
 				RuntimeException.class,
 				task::await,
@@ -34,7 +51,7 @@ class TaskTest {
 
 		Assertions.assertDoesNotThrow(() -> {
 			Task<Integer> task = Task.fail(new Exception("hello"));
-			Assertions.assertNotNull(task._result.get());
+			Assertions.assertTrue(task.isDone());
 			Assertions.assertThrows(
 				RuntimeException.class,
 				task::await,
@@ -50,22 +67,23 @@ class TaskTest {
 				Thread.sleep(100);
 				return 0;
 			});
-			Assertions.assertNull(task._result.get());
+			Assertions.assertFalse(task.isDone());
 			Assertions.assertEquals(0, task.await());
-			Assertions.assertNotNull(task._result.get());
+			Assertions.assertTrue(task.isDone());
 		});
 
 		Assertions.assertDoesNotThrow(() -> {
 			Task<Integer> task = new Task<>(() -> {
+				Thread.sleep(100);
 				throw new Exception("hello");
 			});
-			Assertions.assertNull(task._result.get());
+			Assertions.assertFalse(task.isDone());
 			Assertions.assertThrows(
 				RuntimeException.class,
 				task::await,
 				"hello"
 			);
-			Assertions.assertNotNull(task._result.get());
+			Assertions.assertTrue(task.isDone());
 		});
 	}
 
@@ -76,20 +94,23 @@ class TaskTest {
 				Thread.sleep(100);
 				return TaskResult.success(0);
 			});
-			Assertions.assertNull(task._result.get());
+			Assertions.assertFalse(task.isDone());
 			Assertions.assertEquals(0, task.await());
-			Assertions.assertNotNull(task._result.get());
+			Assertions.assertTrue(task.isDone());
 		});
 
 		Assertions.assertDoesNotThrow(() -> {
-			Task<Integer> task = new Task<>(() -> TaskResult.failure(new Exception("hello")));
-			Assertions.assertNull(task._result.get());
+			Task<Integer> task = new Task<>(() -> {
+				Thread.sleep(100);
+				return TaskResult.failure(new Exception("hello"));
+			});
+			Assertions.assertFalse(task.isDone());
 			Assertions.assertThrows(
 				RuntimeException.class,
 				task::await,
 				"hello"
 			);
-			Assertions.assertNotNull(task._result.get());
+			Assertions.assertTrue(task.isDone());
 		});
 	}
 
@@ -103,9 +124,10 @@ class TaskTest {
 				Thread.sleep(100);
 				return 0;
 			});
-			Assertions.assertNull(task._result.get());
+			Assertions.assertFalse(task.isDone());
 			Assertions.assertEquals(0, task.await());
-			Assertions.assertNotNull(task._result.get());
+			Assertions.assertTrue(task.isDone());
+			Assertions.assertTrue(Thread.interrupted());
 		});
 	}
 
@@ -164,4 +186,749 @@ class TaskTest {
 	public void successAnd() {
 		Assertions.assertDoesNotThrow(() -> Assertions.assertEquals(246, Task.complete(123).and(value -> Task.complete(value * 2)).await()));
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void andFailsWhenActionReturnsNull() {
+		Assertions.assertInstanceOf(
+			NullPointerException.class,
+			Task.complete(1).<Integer>and(value -> null, TaskScheduler.getDefaultExecutor()).waitForResult().exception
+		);
+		Assertions.assertInstanceOf(
+			NullPointerException.class,
+			Task.complete(1).<Integer>and(value -> null).waitForResult().exception
+		);
+	}
+
+	@Test
+	public void runsOnProvidedExecutor() {
+		AtomicInteger executed = new AtomicInteger();
+		Executor executor = runnable -> {
+			executed.incrementAndGet();
+			TaskScheduler.getDefaultExecutor().execute(runnable);
+		};
+
+		Task<Integer> task = new Task<>(() -> {
+			Thread.sleep(100);
+			return 1;
+		}, executor);
+		Task<Integer> mapped = task.map(value -> value * 2);
+		Assertions.assertEquals(1, task.await());
+		Assertions.assertEquals(2, mapped.await());
+		// The map() stage is fused onto the worker that ran the action.
+		Assertions.assertEquals(1, executed.get());
+	}
+
+	@Test
+	public void defaultExecutorCannotBeNull() {
+		Assertions.assertThrows(
+			NullPointerException.class,
+			() -> TaskScheduler.setDefaultExecutor(null),
+			"Could not set the default executor: the executor cannot be null!"
+		);
+	}
+
+	@Test
+	public void stagesDoNotBlockWorkers() {
+		ExecutorService single = Executors.newSingleThreadExecutor();
+		try {
+			Task<Integer> task = new Task<>(() -> 0, single);
+			for (int i = 0; i < 10; i++) {
+				task = task
+					.and(value -> new Task<>(() -> value + 1, single))
+					.map(value -> value + 1);
+			}
+			Assertions.assertEquals(20, task.await());
+		} finally {
+			single.shutdown();
+		}
+	}
+
+	@Test
+	public void fusesConsecutiveStages() throws InterruptedException {
+		CountDownLatch latch = new CountDownLatch(1);
+		Set<Thread> threads = ConcurrentHashMap.newKeySet();
+		Task<Integer> task = new Task<>(() -> {
+			latch.await();
+			threads.add(Thread.currentThread());
+			return 0;
+		});
+		for (int i = 0; i < 10_000; i++) {
+			task = task
+				.map(value -> {
+					threads.add(Thread.currentThread());
+					return value + 1;
+				})
+				.or(exception -> -1);
+		}
+		latch.countDown();
+		Assertions.assertEquals(10_000, task.await());
+		Assertions.assertEquals(1, threads.size());
+
+		// Only one branch is fused, the other one still runs in parallel.
+		CountDownLatch both = new CountDownLatch(2);
+		Task<Integer> source = new Task<>(() -> {
+			Thread.sleep(50);
+			return 0;
+		});
+		TaskActionMap<Boolean, Integer> meet = value -> {
+			both.countDown();
+			return both.await(5, TimeUnit.SECONDS);
+		};
+		Task<Boolean> first = source.map(meet);
+		Task<Boolean> second = source.map(meet);
+		Assertions.assertTrue(first.await());
+		Assertions.assertTrue(second.await());
+
+		// Tasks created inside a stage are never fused onto it.
+		Assertions.assertEquals(2, source.map(value -> new Task<>(() -> 1).map(one -> one + 1).await()).await());
+	}
+
+	@Test
+	public void recursiveAndRunsInConstantStack() {
+		Assertions.assertEquals(100_000, countDown(100_000, Task::complete).await());
+		Assertions.assertEquals(10_000, countDown(10_000, remaining -> new Task<>(() -> remaining)).await());
+	}
+
+	private static Task<Integer> countDown(int remaining, IntFunction<Task<Integer>> fetch) {
+		return fetch.apply(remaining).and(value -> value == 0
+			? Task.complete(0)
+			: countDown(value - 1, fetch).map(count -> count + 1));
+	}
+
+	@Test
+	public void runsOnVirtualThreadExecutor() {
+		Executor executor = TaskScheduler.getVirtualThreadExecutor();
+		Assertions.assertNotNull(executor);
+		Assertions.assertEquals(
+			TaskScheduler.supportsVirtualThreads(),
+			new Task<>(() -> Thread.currentThread().toString().startsWith("VirtualThread"), executor).await()
+		);
+	}
+
+	@Test
+	public void completedTasksMapInlineOnlyWhenAsked() {
+		Thread caller = Thread.currentThread();
+		Assertions.assertNotSame(caller, Task.complete(1).map(value -> Thread.currentThread()).await());
+		Assertions.assertNotSame(caller, Task.<Thread>fail(new Exception("hello")).or(ex -> Thread.currentThread()).await());
+
+		Task<Thread> mapped = Task.complete(1).mapNow(value -> Thread.currentThread());
+		Assertions.assertTrue(mapped.isDone());
+		Assertions.assertSame(caller, mapped.await());
+
+		Task<Integer> task = Task.complete(1);
+		Assertions.assertSame(task, task.or(ex -> -1));
+		Assertions.assertSame(task, task.orNow(ex -> -1));
+		Assertions.assertTrue(Task.fail(new Exception("hello")).orNow(ex -> -1).isDone());
+		Assertions.assertTrue(task.and(value -> Task.complete(value * 2)).isDone());
+
+		Exception e = new Exception("hello");
+		TaskResult<Integer> failed = Task.complete(1).<Integer>mapNow(value -> {
+			throw e;
+		}).waitForResult();
+		Assertions.assertTrue(failed.didThrow);
+		Assertions.assertEquals(e, failed.exception);
+	}
+
+	@Test
+	public void nullValuesFailTheTask() {
+		TaskResult<Integer> completed = Task.complete(1).<Integer>map(value -> null).waitForResult();
+		Assertions.assertInstanceOf(NullPointerException.class, completed.exception);
+
+		TaskResult<Integer> pending = new Task<>(() -> {
+			Thread.sleep(50);
+			return 1;
+		}).<Integer>map(value -> null).waitForResult();
+		Assertions.assertInstanceOf(NullPointerException.class, pending.exception);
+
+		Assertions.assertThrows(NullPointerException.class, () -> Task.complete(null));
+	}
+
+	@Test
+	public void doneIsShared() {
+		Assertions.assertSame(Task.done(), Task.done());
+		Assertions.assertSame(TaskUnit.INSTANCE, Task.done().await());
+		Assertions.assertSame(TaskUnit.INSTANCE, TaskResult.unit().value);
+		Assertions.assertSame(TaskResult.unit(), TaskResult.unit());
+	}
+
+	@Test
+	public void awaitAllFailsFast() {
+		Exception e = new Exception("hello");
+		Task<Integer> slow = new Task<>(() -> {
+			Thread.sleep(10_000);
+			return 1;
+		});
+		Task<List<Integer>> all = Task.all(List.of(slow, Task.fail(e)));
+		TaskResult<List<Integer>> result = all.waitForResult();
+		Assertions.assertTrue(result.didThrow);
+		Assertions.assertEquals(e, result.exception);
+		Assertions.assertFalse(slow.isDone());
+	}
+
+	@Test
+	public void awaitAllArrayAndIterable() {
+		Assertions.assertArrayEquals(
+			new Integer[]{1, 2, 3},
+			Task.all(Task.complete(1), new Task<>(() -> 2), Task.complete(3)).await().toArray(new Integer[3])
+		);
+
+		Iterable<Task<Integer>> iterable = () -> IntStream.range(0, 1000).mapToObj(Task::complete).iterator();
+		List<Integer> values = Task.all(iterable).await();
+		Assertions.assertEquals(1000, values.size());
+		Assertions.assertEquals(999, values.get(999));
+
+		Assertions.assertTrue(Task.<Integer>all(new ArrayList<>()).await().isEmpty());
+	}
+
+	@Test
+	public void allSettledWaitsForEveryTask() {
+		Exception e = new Exception("hello");
+		Task<Integer> slow = new Task<>(() -> {
+			Thread.sleep(100);
+			return 3;
+		});
+		List<TaskResult<Integer>> results = Task.allSettled(Task.complete(1), Task.fail(e), slow).await();
+		Assertions.assertTrue(slow.isDone());
+		Assertions.assertEquals(3, results.size());
+		Assertions.assertFalse(results.get(0).didThrow);
+		Assertions.assertEquals(1, results.get(0).value);
+		Assertions.assertTrue(results.get(1).didThrow);
+		Assertions.assertEquals(e, results.get(1).exception);
+		Assertions.assertEquals(3, results.get(2).value);
+
+		Assertions.assertTrue(Task.<Integer>allSettled(new ArrayList<>()).await().isEmpty());
+	}
+
+	@Test
+	public void mapParallel() {
+		AtomicInteger inFlight = new AtomicInteger();
+		AtomicInteger maxInFlight = new AtomicInteger();
+		List<Integer> inputs = IntStream.range(0, 1_000).boxed().toList();
+		List<Integer> outputs = Task.mapParallel(inputs, value -> {
+			maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+			Thread.sleep(0, 100_000);
+			inFlight.decrementAndGet();
+			return value * 2;
+		}, 4).await();
+		Assertions.assertEquals(IntStream.range(0, 1_000).map(value -> value * 2).boxed().toList(), outputs);
+		Assertions.assertTrue(maxInFlight.get() <= 4);
+		Assertions.assertEquals(List.of(), Task.mapParallel(List.<Integer>of(), value -> value, 4).await());
+
+		Exception e = new Exception("hello");
+		AtomicInteger ran = new AtomicInteger();
+		TaskResult<List<Integer>> failed = Task.mapParallel(inputs, value -> {
+			ran.incrementAndGet();
+			if (value == 10) throw e;
+			return value;
+		}, 2).waitForResult();
+		Assertions.assertEquals(e, failed.exception);
+		Assertions.assertTrue(ran.get() < 1_000);
+
+		Assertions.assertThrows(IllegalArgumentException.class, () -> Task.mapParallel(inputs, value -> value, 0));
+	}
+
+	@Test
+	public void mapParallelStream() {
+		AtomicInteger pulled = new AtomicInteger();
+		AtomicInteger maxAhead = new AtomicInteger();
+		List<Integer> consumed = new ArrayList<>();
+		Iterator<Integer> inputs = new Iterator<>() {
+			@Override
+			public boolean hasNext() {
+				return pulled.get() < 1_000;
+			}
+
+			@Override
+			public Integer next() {
+				synchronized (consumed) {
+					maxAhead.accumulateAndGet(pulled.get() - consumed.size(), Math::max);
+				}
+				return pulled.getAndIncrement();
+			}
+		};
+		Task<TaskUnit> task = Task.mapParallel(inputs, value -> {
+			Thread.sleep(0, (1_000 - value) * 100);
+			return value * 2;
+		}, 8, value -> {
+			synchronized (consumed) {
+				consumed.add(value);
+			}
+		});
+		Assertions.assertSame(TaskUnit.INSTANCE, task.await());
+		Assertions.assertEquals(IntStream.range(0, 1_000).map(value -> value * 2).boxed().toList(), consumed);
+		Assertions.assertTrue(maxAhead.get() < 8);
+
+		Exception e = new Exception("hello");
+		TaskResult<TaskUnit> failed = Task.mapParallel(List.of(1, 2, 3).iterator(), value -> value, 2, value -> {
+			if (value == 2) throw e;
+		}).waitForResult();
+		Assertions.assertEquals(e, failed.exception);
+	}
+
+	@Test
+	public void cancel() {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch interrupted = new CountDownLatch(1);
+		Task<Integer> task = new Task<>(() -> {
+			started.countDown();
+			try {
+				Thread.sleep(10_000);
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+				throw e;
+			}
+			return 1;
+		});
+		Assertions.assertDoesNotThrow(() -> started.await());
+		Assertions.assertTrue(task.cancel());
+		Assertions.assertFalse(task.cancel());
+		Assertions.assertTrue(task.isCancelled());
+		Assertions.assertTrue(Assertions.assertDoesNotThrow(() -> interrupted.await(5, TimeUnit.SECONDS)));
+		Assertions.assertInstanceOf(CancellationException.class, task.waitForResult().exception);
+		Assertions.assertThrows(RuntimeException.class, task::await);
+
+		Assertions.assertFalse(Task.complete(1).cancel());
+		Assertions.assertFalse(Task.complete(1).isCancelled());
+	}
+
+	@Test
+	public void any() {
+		Task<Integer> slow = new Task<>(() -> {
+			Thread.sleep(10_000);
+			return 1;
+		});
+		Assertions.assertEquals(2, Task.any(slow, Task.fail(new Exception("hello")), new Task<>(() -> 2)).await());
+		slow.waitForResult();
+		Assertions.assertTrue(slow.isCancelled());
+
+		Exception e = new Exception("hello");
+		TaskResult<Integer> result = Task.<Integer>any(Task.fail(new Exception("first")), new Task<>(() -> {
+			Thread.sleep(100);
+			throw e;
+		})).waitForResult();
+		Assertions.assertTrue(result.didThrow);
+		Assertions.assertEquals(e, result.exception);
+
+		Assertions.assertThrows(
+			IllegalArgumentException.class,
+			() -> Task.any(new ArrayList<Task<Integer>>()),
+			"Could not wait for the first task: no tasks were provided!"
+		);
+	}
+
+	@Test
+	public void race() {
+		Task<Integer> slow = new Task<>(() -> {
+			Thread.sleep(10_000);
+			return 1;
+		});
+		Exception e = new Exception("hello");
+		TaskResult<Integer> result = Task.race(slow, Task.fail(e)).waitForResult();
+		Assertions.assertTrue(result.didThrow);
+		Assertions.assertEquals(e, result.exception);
+		slow.waitForResult();
+		Assertions.assertTrue(slow.isCancelled());
+
+		Assertions.assertEquals(3, Task.race(List.of(Task.complete(3), Task.complete(4))).await());
+	}
+
+	@Test
+	public void raceOnlyCancelsLosersWithoutOtherDependents() {
+		Task<Integer> primary = new Task<>(() -> {
+			Thread.sleep(50);
+			return 1;
+		});
+		Task<Integer> mapped = primary.map(value -> value + 1);
+		Assertions.assertEquals(2, Task.race(primary, Task.complete(2)).await());
+		Assertions.assertEquals(2, mapped.await());
+		Assertions.assertFalse(primary.isCancelled());
+
+		Task<Integer> slow = new Task<>(() -> {
+			Thread.sleep(10_000);
+			return 1;
+		});
+		Assertions.assertEquals(3, Task.race(Task.complete(3), slow).await());
+		slow.waitForResult();
+		Assertions.assertTrue(slow.isCancelled());
+
+		Task<Integer> shared = new Task<>(() -> {
+			Thread.sleep(500);
+			return 1;
+		});
+		Task<Integer> other = shared.map(value -> value + 1);
+		Task<Integer> loser = new Task<>(() -> {
+			Thread.sleep(10_000);
+			return 1;
+		});
+		Task<Integer> race = Task.race(loser, shared);
+		Assertions.assertTrue(loser.cancel());
+		Assertions.assertTrue(race.isCancelled());
+		Assertions.assertEquals(2, other.await());
+		Assertions.assertFalse(shared.isCancelled());
+	}
+
+	@Test
+	public void cancellationToken() {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch cancelled = new CountDownLatch(1);
+		Task<Integer> task = new Task<>(token -> {
+			token.onCancel(cancelled::countDown);
+			started.countDown();
+			while (true) {
+				token.throwIfCancelled();
+				Thread.onSpinWait();
+			}
+		});
+		Assertions.assertDoesNotThrow(() -> started.await());
+		Assertions.assertTrue(task.cancel());
+		Assertions.assertTrue(Assertions.assertDoesNotThrow(() -> cancelled.await(5, TimeUnit.SECONDS)));
+		Assertions.assertTrue(task.isCancelled());
+	}
+
+	@Test
+	public void cancellationPropagatesDownstream() {
+		Task<Integer> source = new Task<>(() -> {
+			Thread.sleep(10_000);
+			return 1;
+		});
+		Task<Integer> mapped = source.map(value -> value + 1);
+		Task<Integer> recovered = mapped.or(ex -> -1);
+		Task<Integer> chained = recovered.and(value -> Task.complete(value + 1));
+
+		Assertions.assertTrue(source.cancel());
+		Assertions.assertTrue(mapped.isCancelled());
+		Assertions.assertTrue(recovered.isCancelled());
+		Assertions.assertTrue(chained.isCancelled());
+	}
+
+	@Test
+	public void cancellationPropagatesUpstream() {
+		Task<Integer> source = new Task<>(() -> {
+			Thread.sleep(10_000);
+			return 1;
+		});
+		Task<Integer> first = source.map(value -> value + 1);
+		Task<Integer> second = source.map(value -> value + 2);
+
+		Assertions.assertTrue(first.cancel());
+		Assertions.assertFalse(source.isDone());
+		Assertions.assertTrue(second.cancel());
+		Assertions.assertTrue(source.isCancelled());
+
+		Task<Integer> inner = new Task<>(() -> {
+			Thread.sleep(10_000);
+			return 1;
+		});
+		Task<Integer> chained = Task.complete(1).and(value -> inner, TaskScheduler.getDefaultExecutor());
+		Assertions.assertDoesNotThrow(() -> Thread.sleep(100));
+		Assertions.assertTrue(chained.cancel());
+		Assertions.assertTrue(inner.isCancelled());
+
+		Task<Integer> slow = new Task<>(() -> {
+			Thread.sleep(10_000);
+			return 1;
+		});
+		Assertions.assertTrue(Task.all(slow, Task.complete(2)).cancel());
+		Assertions.assertTrue(slow.isCancelled());
+	}
+
+	@Test
+	public void awaitWithTimeout() {
+		Task<Integer> slow = new Task<>(() -> {
+			Thread.sleep(10_000);
+			return 1;
+		});
+		RuntimeException exception = Assertions.assertThrows(
+			RuntimeException.class,
+			() -> slow.await(Duration.ofMillis(50))
+		);
+		Assertions.assertInstanceOf(TimeoutException.class, exception.getCause());
+		Assertions.assertFalse(slow.isDone());
+		Assertions.assertThrows(
+			RuntimeException.class,
+			() -> slow.awaitUntil(Instant.now().plusMillis(50))
+		);
+		slow.cancel();
+
+		Assertions.assertEquals(1, new Task<>(() -> 1).await(Duration.ofSeconds(5)));
+		Assertions.assertEquals(1, new Task<>(() -> 1).awaitUntil(Instant.now().plusSeconds(5)));
+	}
+
+	@Test
+	public void timeout() {
+		Task<Integer> slow = new Task<>(() -> {
+			Thread.sleep(10_000);
+			return 1;
+		});
+		TaskResult<Integer> result = slow.timeout(Duration.ofMillis(50)).waitForResult();
+		Assertions.assertTrue(result.didThrow);
+		Assertions.assertInstanceOf(TimeoutException.class, result.exception);
+		slow.waitForResult();
+		Assertions.assertTrue(slow.isCancelled());
+
+		Assertions.assertEquals(-1, new Task<>(() -> {
+			Thread.sleep(10_000);
+			return 1;
+		}).timeout(Duration.ofMillis(50)).or(ex -> -1).await());
+
+		Assertions.assertEquals(1, new Task<>(() -> 1).timeout(Duration.ofSeconds(5)).await());
+	}
+
+	@Test
+	public void delayAndSchedule() {
+		long start = System.nanoTime();
+		Assertions.assertSame(TaskUnit.INSTANCE, Task.delay(Duration.ofMillis(50)).await());
+		Assertions.assertTrue(System.nanoTime() - start >= Duration.ofMillis(50).toNanos());
+
+		start = System.nanoTime();
+		Assertions.assertEquals(123, Task.schedule(Duration.ofMillis(50), () -> 123).await());
+		Assertions.assertTrue(System.nanoTime() - start >= Duration.ofMillis(50).toNanos());
+
+		AtomicInteger runs = new AtomicInteger();
+		Task<Integer> cancelled = Task.schedule(Duration.ofMillis(50), runs::incrementAndGet);
+		Assertions.assertTrue(cancelled.cancel());
+		Assertions.assertSame(TaskUnit.INSTANCE, Task.delay(Duration.ofMillis(100)).await());
+		Assertions.assertEquals(0, runs.get());
+
+		Exception e = new Exception("hello");
+		Assertions.assertEquals(e, Task.schedule(Duration.ZERO, () -> {
+			throw e;
+		}).waitForResult().exception);
+		Assertions.assertThrows(IllegalArgumentException.class, () -> Task.delay(Duration.ofMillis(-1)));
+	}
+
+	@Test
+	public void schedulePeriodic() throws InterruptedException {
+		List<Long> runs = new ArrayList<>();
+		CountDownLatch fiveRuns = new CountDownLatch(5);
+		long start = System.nanoTime();
+		Task<TaskUnit> periodic = Task.schedulePeriodic(Duration.ofMillis(10), Duration.ofMillis(20), run -> {
+			synchronized (runs) {
+				runs.add(run);
+			}
+			fiveRuns.countDown();
+		});
+		Assertions.assertTrue(fiveRuns.await(5, TimeUnit.SECONDS));
+		Assertions.assertTrue(System.nanoTime() - start >= Duration.ofMillis(90).toNanos());
+		Assertions.assertTrue(periodic.cancel());
+		int count;
+		synchronized (runs) {
+			count = runs.size();
+			Assertions.assertEquals(List.of(0L, 1L, 2L, 3L, 4L), runs.subList(0, 5));
+		}
+		Thread.sleep(100);
+		synchronized (runs) {
+			Assertions.assertTrue(runs.size() <= count + 1);
+		}
+
+		Exception e = new Exception("hello");
+		Task<TaskUnit> failing = Task.schedulePeriodic(Duration.ZERO, Duration.ofMillis(5), run -> {
+			if (run == 3) throw e;
+		});
+		Assertions.assertEquals(e, failing.waitForResult().exception);
+		Assertions.assertThrows(
+			IllegalArgumentException.class,
+			() -> Task.schedulePeriodic(Duration.ZERO, Duration.ZERO, run -> {
+			})
+		);
+	}
+
+	@Test
+	public void lazyStartsOnDemand() throws InterruptedException {
+		AtomicInteger runs = new AtomicInteger();
+		Task<Integer> awaited = Task.lazy(runs::incrementAndGet);
+		Thread.sleep(50);
+		Assertions.assertFalse(awaited.isDone());
+		Assertions.assertEquals(0, runs.get());
+		Assertions.assertEquals(1, awaited.await());
+		Assertions.assertEquals(1, awaited.await());
+		Assertions.assertEquals(1, runs.get());
+
+		Task<Integer> chained = Task.lazy(runs::incrementAndGet);
+		Task<Integer> mapped = chained.map(value -> value * 10);
+		Assertions.assertEquals(20, mapped.await());
+
+		Task<Integer> started = Task.lazy(runs::incrementAndGet).start();
+		while (!started.isDone()) Thread.sleep(1);
+		Assertions.assertEquals(3, started.await());
+
+		Task<Integer> cancelled = Task.lazy(runs::incrementAndGet);
+		Assertions.assertTrue(cancelled.cancel());
+		Assertions.assertTrue(cancelled.waitForResult().didThrow);
+		Assertions.assertEquals(3, runs.get());
+	}
+
+	@Test
+	public void lazyRunsAtMostOnce() {
+		AtomicInteger runs = new AtomicInteger();
+		Task<Integer> task = Task.lazy(runs::incrementAndGet);
+		List<Task<Integer>> awaiting = new ArrayList<>();
+		for (int i = 0; i < 16; i++) {
+			awaiting.add(new Task<>(() -> task.await()));
+		}
+		Assertions.assertEquals(16, Task.all(awaiting).await().size());
+		Assertions.assertEquals(1, runs.get());
+	}
+
+	@Test
+	public void deferCreatesTaskOnDemand() {
+		AtomicInteger created = new AtomicInteger();
+		Task<Integer> deferred = Task.defer(() -> {
+			created.incrementAndGet();
+			return new Task<>(() -> 123);
+		});
+		Assertions.assertEquals(0, created.get());
+		Assertions.assertEquals(123, deferred.await());
+		Assertions.assertEquals(1, created.get());
+
+		Exception e = new Exception("hello");
+		Assertions.assertEquals(e, Task.<Integer>defer(() -> {
+			throw e;
+		}).waitForResult().exception);
+
+		Assertions.assertInstanceOf(
+			NullPointerException.class,
+			Task.<Integer>defer(() -> null).waitForResult().exception
+		);
+	}
+
+	@Test
+	public void fromFuture() {
+		CompletableFuture<Integer> future = new CompletableFuture<>();
+		Task<Integer> task = Task.fromFuture(future).map(value -> value * 2);
+		Assertions.assertFalse(task.isDone());
+		future.complete(21);
+		Assertions.assertEquals(42, task.await());
+
+		Exception e = new Exception("hello");
+		Assertions.assertEquals(e, Task.fromFuture(CompletableFuture.failedFuture(e)).waitForResult().exception);
+		Assertions.assertEquals(e, Task.fromFuture(CompletableFuture.supplyAsync(() -> {
+			throw new CompletionException(e);
+		})).waitForResult().exception);
+		Assertions.assertInstanceOf(
+			NullPointerException.class,
+			Task.fromFuture(CompletableFuture.completedFuture(null)).waitForResult().exception
+		);
+
+		CompletableFuture<Integer> cancelled = new CompletableFuture<>();
+		Assertions.assertTrue(Task.fromFuture(cancelled).cancel());
+		Assertions.assertTrue(cancelled.isCancelled());
+	}
+
+	@Test
+	public void toCompletableFuture() {
+		CompletableFuture<Integer> future = new Task<>(() -> {
+			Thread.sleep(50);
+			return 21;
+		}).toCompletableFuture();
+		Assertions.assertEquals(42, future.thenApply(value -> value * 2).join());
+
+		Exception e = new Exception("hello");
+		CompletionException failure = Assertions.assertThrows(
+			CompletionException.class,
+			() -> Task.fail(e).toCompletableFuture().join()
+		);
+		Assertions.assertEquals(e, failure.getCause());
+
+		Task<Integer> slow = new Task<>(() -> {
+			Thread.sleep(10_000);
+			return 1;
+		});
+		Assertions.assertTrue(slow.toCompletableFuture().cancel(true));
+		slow.waitForResult();
+		Assertions.assertTrue(slow.isCancelled());
+
+		Task<Integer> shared = new Task<>(() -> {
+			Thread.sleep(100);
+			return 1;
+		});
+		Task<Integer> dependent = shared.map(value -> value);
+		Assertions.assertTrue(shared.toCompletableFuture().cancel(true));
+		Assertions.assertEquals(1, dependent.await());
+	}
+
+	@Test
+	public void callbacksCanWaitForTasksTheyComplete() throws InterruptedException {
+		CompletableFuture<Integer> inner = new CompletableFuture<>();
+		CompletableFuture<Integer> outer = new Task<>(() -> {
+			Thread.sleep(20);
+			return 1;
+		}).toCompletableFuture().thenApply(value -> {
+			Task<Integer> mapped = Task.fromFuture(inner).map(x -> x + 1);
+			inner.complete(value);
+			return mapped.await(Duration.ofSeconds(2));
+		});
+		Assertions.assertEquals(2, outer.join());
+
+		CompletableFuture<Integer> released = new CompletableFuture<>();
+		CountDownLatch started = new CountDownLatch(1);
+		Task<Integer> cancelled = new Task<>(token -> {
+			token.onCancel(() -> {
+				Task<Integer> mapped = Task.fromFuture(released).map(x -> x + 1);
+				released.complete(1);
+				mapped.await(Duration.ofSeconds(2));
+			});
+			started.countDown();
+			Thread.sleep(10_000);
+			return 1;
+		});
+		started.await();
+		Assertions.assertTrue(cancelled.cancel());
+		Assertions.assertTrue(released.isDone());
+	}
+
+	@Test
+	public void callbacksCanWaitForFusedStages() {
+		Task<Integer> source = new Task<>(() -> {
+			Thread.sleep(50);
+			return 1;
+		});
+		Task<Integer> mapped = source.map(x -> x + 1);
+		CompletableFuture<Integer> future = source.toCompletableFuture()
+			.thenApply(x -> mapped.await(Duration.ofSeconds(2)));
+		Assertions.assertEquals(2, future.join());
+	}
+
+	@Test
+	public void deadlinePropagatesToChainedStages() {
+		Task<Integer> inner = new Task<>(() -> {
+			Thread.sleep(10_000);
+			return 1;
+		});
+		Task<Integer> chained = new Task<>(() -> {
+			Thread.sleep(50);
+			return 1;
+		})
+			.timeout(Duration.ofMillis(200))
+			.and(value -> inner);
+		TaskResult<Integer> result = chained.waitForResult();
+		Assertions.assertTrue(result.didThrow);
+		Assertions.assertInstanceOf(TimeoutException.class, result.exception);
+		inner.waitForResult();
+		Assertions.assertTrue(inner.isCancelled());
+	}
+
+	@Test
+	public void concurrentAwaitersAndStages() {
+		for (int round = 0; round < 50; round++) {
+			CountDownLatch release = new CountDownLatch(1);
+			Task<Integer> task = new Task<>(() -> {
+				release.await();
+				return 1;
+			});
+			List<Task<Integer>> awaiters = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				awaiters.add(new Task<>(() -> task.await()));
+				awaiters.add(task.map(value -> value + 1));
+			}
+			release.countDown();
+			for (int i = 0; i < 8; i++) {
+				awaiters.add(task.map(value -> value + 1));
+			}
+			Assertions.assertEquals(
+				8 + 16 * 2,
+				Task.all(awaiters).await().stream().mapToInt(Integer::intValue).sum()
+			);
+		}
+	}
+}
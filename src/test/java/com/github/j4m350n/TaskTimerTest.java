@@ -0,0 +1,84 @@
+package com.github.j4m350n;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class TaskTimerTest {
+
+	@Test
+	public void neverFiresEarly() throws InterruptedException {
+		int count = 200;
+		CountDownLatch fired = new CountDownLatch(count);
+		AtomicInteger early = new AtomicInteger();
+		for (int i = 0; i < count; i++) {
+			long delay = TimeUnit.MICROSECONDS.toNanos(i * 997L);
+			long deadline = System.nanoTime() + delay;
+			TaskTimer.schedule(() -> {
+				if (System.nanoTime() - deadline < 0) early.incrementAndGet();
+				fired.countDown();
+			}, delay);
+		}
+		Assertions.assertTrue(fired.await(5, TimeUnit.SECONDS));
+		Assertions.assertEquals(0, early.get());
+	}
+
+	@Test
+	public void firesAfterSeveralTurnsOfTheWheel() throws InterruptedException {
+		CountDownLatch fired = new CountDownLatch(1);
+		long start = System.nanoTime();
+		TaskTimer.Timeout timeout = TaskTimer.schedule(fired::countDown, Duration.ofMillis(1_200).toNanos());
+		Assertions.assertTrue(fired.await(5, TimeUnit.SECONDS));
+		Assertions.assertTrue(System.nanoTime() - start >= Duration.ofMillis(1_200).toNanos());
+		Assertions.assertTrue(Math.abs(timeout.deadline() - start - Duration.ofMillis(1_200).toNanos()) < Duration.ofMillis(10).toNanos());
+	}
+
+	@Test
+	public void earlierTimeoutWakesTheTimer() throws InterruptedException {
+		TaskTimer.Timeout later = TaskTimer.schedule(() -> {}, Duration.ofMinutes(10).toNanos());
+		Thread.sleep(20);
+		CountDownLatch fired = new CountDownLatch(1);
+		long start = System.nanoTime();
+		TaskTimer.schedule(fired::countDown, Duration.ofMillis(5).toNanos());
+		Assertions.assertTrue(fired.await(5, TimeUnit.SECONDS));
+		Assertions.assertTrue(System.nanoTime() - start < Duration.ofMillis(200).toNanos());
+		later.cancel();
+	}
+
+	@Test
+	public void cancelledTimeoutsNeverFire() throws InterruptedException {
+		AtomicInteger fired = new AtomicInteger();
+		CountDownLatch last = new CountDownLatch(1);
+		for (int i = 0; i < 100_000; i++) {
+			TaskTimer.schedule(fired::incrementAndGet, Duration.ofMillis(50).toNanos()).cancel();
+		}
+		TaskTimer.schedule(last::countDown, Duration.ofMillis(100).toNanos());
+		Assertions.assertTrue(last.await(5, TimeUnit.SECONDS));
+		Assertions.assertEquals(0, fired.get());
+	}
+
+	@Test
+	public void handlesManyPendingTimeouts() throws InterruptedException {
+		int count = 500_000;
+		CountDownLatch fired = new CountDownLatch(count);
+		for (int i = 0; i < count; i++) {
+			TaskTimer.schedule(fired::countDown, TimeUnit.MILLISECONDS.toNanos(i % 1_000));
+		}
+		Assertions.assertTrue(fired.await(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void failingActionDoesNotStopTheTimer() throws InterruptedException {
+		CountDownLatch fired = new CountDownLatch(1);
+		TaskTimer.schedule(() -> {
+			throw new IllegalStateException("hello");
+		}, 0);
+		TaskTimer.schedule(fired::countDown, Duration.ofMillis(5).toNanos());
+		Assertions.assertTrue(fired.await(5, TimeUnit.SECONDS));
+	}
+
+}
@@ -0,0 +1,72 @@
+package com.github.j4m350n;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+class TaskWaitStrategyTest {
+
+	@Test
+	public void recordsAverageDuration() {
+		boolean adaptive = TaskWaitStrategy.isAdaptive();
+		TaskWaitStrategy.setAdaptive(true);
+		try {
+			for (int i = 0; i < 64; i++) {
+				TaskWaitStrategy.record(Duration.ofMillis(1).toNanos());
+			}
+			Assertions.assertTrue(TaskWaitStrategy.getAverageDuration().compareTo(Duration.ofNanos(900_000)) > 0);
+
+			// Slow recent actions: waiting threads park right away.
+			Task<Integer> slow = new Task<>(() -> {
+				Thread.sleep(10_000);
+				return 1;
+			});
+			Assertions.assertFalse(TaskWaitStrategy.spin(slow));
+			slow.cancel();
+
+			for (int i = 0; i < 64; i++) {
+				TaskWaitStrategy.record(0);
+			}
+			Assertions.assertTrue(TaskWaitStrategy.getAverageDuration().compareTo(Duration.ofNanos(10_000)) < 0);
+		} finally {
+			TaskWaitStrategy.setAdaptive(adaptive);
+		}
+	}
+
+	@Test
+	public void spinsUntilDone() {
+		Assertions.assertTrue(TaskWaitStrategy.spin(Task.complete(1)));
+
+		int spins = TaskWaitStrategy.getSpinIterations();
+		int yields = TaskWaitStrategy.getYieldIterations();
+		TaskWaitStrategy.setSpinIterations(0);
+		TaskWaitStrategy.setYieldIterations(0);
+		try {
+			Assertions.assertEquals(1, new Task<>(() -> 1).await());
+		} finally {
+			TaskWaitStrategy.setSpinIterations(spins);
+			TaskWaitStrategy.setYieldIterations(yields);
+		}
+	}
+
+	@Test
+	public void invalidConfiguration() {
+		Assertions.assertThrows(
+			IllegalArgumentException.class,
+			() -> TaskWaitStrategy.setSpinIterations(-1),
+			"Could not set the spin iterations: the iterations cannot be negative!"
+		);
+		Assertions.assertThrows(
+			IllegalArgumentException.class,
+			() -> TaskWaitStrategy.setYieldIterations(-1),
+			"Could not set the yield iterations: the iterations cannot be negative!"
+		);
+		Assertions.assertThrows(
+			IllegalArgumentException.class,
+			() -> TaskWaitStrategy.setSpinThreshold(Duration.ofNanos(-1)),
+			"Could not set the spin threshold: the threshold cannot be negative!"
+		);
+	}
+
+}